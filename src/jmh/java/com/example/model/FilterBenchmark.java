@@ -0,0 +1,84 @@
+package com.example.model;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import javafx.application.Platform;
+import javafx.collections.ObservableList;
+
+/**
+ * ToDoManager.setFilter on a manager populated from a snapshot, which includes the pass of the FilteredList
+ * over all rows. Titles are those of SearchBenchmark, dates spread over two months around today.
+ * ToDoManager needs the JavaFX toolkit, which runs headless on Monocle.
+ * The filter is set on the benchmark thread, while the JavaFX Application Thread is idle.
+ * Settings and the snapshot are written to the working directory, build/jmh with gradle jmh.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(value = 1, jvmArgsAppend = { "-Dglass.platform=Monocle", "-Dmonocle.platform=Headless", "-Dprism.order=sw" })
+@State(Scope.Benchmark)
+public class FilterBenchmark {
+	@Param({ "1000", "10000", "100000" })
+	private int size;
+
+	private ToDoManager manager;
+	private int calls;
+
+	@Setup
+	public void setup() throws IOException {
+		Files.writeString(Path.of("settings.json"), """
+				{"rootEndPoint": "http://localhost:1", "language": "en", "userName": "jmh", "password": ""}
+				""");
+		Files.deleteIfExists(Path.of("todos.journal"));
+		List<ToDoSnapshot.Entry> entries = new ArrayList<>(size);
+		for (int i = 1; i <= size; i++) {
+			entries.add(new ToDoSnapshot.Entry(i, SearchBenchmark.title(i), ToDoFixtures.TODAY.plusDays(i % 60 - 30), i % 5 + 1,
+					i % 3 == 0));
+		}
+		var started = new CompletableFuture<ToDoManager>();
+		Platform.startup(() -> {
+			var account = OfflineJournal.Account.current();
+			ToDoSnapshot.save(account.rootEndPoint(), account.userName(), entries);
+			var todoManager = ToDoManager.getInstance();
+			todoManager.loadSnapshot();
+			started.complete(todoManager);
+		});
+		manager = started.join();
+		if (manager.todosProperty().size() != size) {
+			throw new IllegalStateException(manager.todosProperty().size() + " ToDos loaded of " + size);
+		}
+	}
+
+	// Typing in the search box, the query changes on every call
+	@Benchmark
+	public ObservableList<ToDo> query() {
+		manager.setFilter((calls++ & 1) == 0 ? "invoice" : "invoice 4", false, null, ToDoDateIndex.DateRange.ALL);
+		return manager.filteredTodos();
+	}
+
+	// The week view with completed ToDos hidden, and back to all ToDos
+	@Benchmark
+	public ObservableList<ToDo> weekView() {
+		if ((calls++ & 1) == 0) {
+			manager.setFilter("", true, null, ToDoDateIndex.DateRange.week(ToDoFixtures.TODAY));
+		} else {
+			manager.setFilter("", false, null, ToDoDateIndex.DateRange.ALL);
+		}
+		return manager.filteredTodos();
+	}
+}
@@ -0,0 +1,82 @@
+package com.example.model;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import javafx.beans.property.ListProperty;
+import javafx.beans.property.SimpleListProperty;
+import javafx.collections.FXCollections;
+import javafx.collections.ListChangeListener;
+import javafx.collections.transformation.FilteredList;
+
+/**
+ * Population of the todo list as done by ToDoManager.loadInitialData, and the sort order of SortedToDoIndex.
+ * ToDoManager itself needs a running JavaFX toolkit and a server, so populate() builds the same
+ * structure: the todos list, the id map, SortedToDoIndex, ToDoSearchIndex, ToDoDateIndex,
+ * the FilteredList of the shown ToDos and a field listener on each ToDo.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ModelBenchmark {
+	private static final int CHUNK_SIZE = 500;
+	private static final ToDo.FieldListener fieldListener = (todo, fieldName, oldValue, newValue) -> {};
+
+	@Param({ "1000", "10000", "100000" })
+	private int size;
+
+	// Parsed ToDos arrive in random order of date
+	private List<ToDo> serverTodos;
+	private List<SortedToDoIndex.SortKey> keys;
+
+	@Setup(Level.Invocation)
+	public void setup() {
+		serverTodos = ToDoFixtures.todos(size);
+		keys = serverTodos.stream().map(SortedToDoIndex.SortKey::of).collect(Collectors.toList());
+	}
+
+	@Benchmark
+	public FilteredList<ToDo> populate() {
+		ListProperty<ToDo> todos = new SimpleListProperty<>(FXCollections.observableArrayList());
+		Map<Integer, ToDo> todosById = new HashMap<>();
+		todos.addListener((ListChangeListener<ToDo>) change -> {
+			while (change.next()) {
+				change.getRemoved().forEach(todo -> todosById.remove(todo.getId()));
+				change.getAddedSubList().forEach(todo -> todosById.put(todo.getId(), todo));
+			}
+		});
+		var sortedTodos = new SortedToDoIndex(todos);
+		new ToDoSearchIndex(todos);
+		new ToDoDateIndex(todos);
+		var filteredTodos = new FilteredList<>(sortedTodos);
+
+		for (int from = 0; from < size; from += CHUNK_SIZE) {
+			var chunk = serverTodos.subList(from, Math.min(size, from + CHUNK_SIZE));
+			chunk.forEach(todo -> todo.addFieldListener(fieldListener));
+			todos.addAll(chunk);
+		}
+		return filteredTodos;
+	}
+
+	@Benchmark
+	public List<SortedToDoIndex.SortKey> sortByCompletedAndDate() {
+		Collections.sort(keys);
+		return keys;
+	}
+}
@@ -0,0 +1,119 @@
+package com.example.model;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import javafx.application.Platform;
+import javafx.collections.FXCollections;
+import javafx.collections.ListChangeListener;
+import javafx.collections.ObservableList;
+import javafx.collections.transformation.FilteredList;
+import javafx.scene.Node;
+import javafx.scene.layout.Region;
+import javafx.scene.layout.VBox;
+
+/**
+ * Removal of every other ToDo, 10,000 of 20,000, as done by a delta sync or a bulk delete.
+ * The list is indexed by SortedToDoIndex and shown in a VBox through a FilteredList, with a row per ToDo
+ * found by the todoNodes map, as MainController.initVBox does. The rows are empty Regions outside a scene,
+ * so only the change of the children is measured, not CSS or layout. The toolkit runs headless on Monocle.
+ * removeAll removes the ToDos in one change, which SortedToDoIndex handles in one pass
+ * and the view with one removeAll of the children.
+ * removeEach removes them one at a time, with a binary search, an array shift and a row removal per ToDo.
+ * removeAllUnindexed is the cost of the list itself, without SortedToDoIndex and the view.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(value = 1, jvmArgsAppend = { "-Dglass.platform=Monocle", "-Dmonocle.platform=Headless", "-Dprism.order=sw" })
+@State(Scope.Benchmark)
+public class RemovalBenchmark {
+	@Param({ "20000" })
+	private int size;
+
+	private ObservableList<ToDo> todos;
+	private SortedToDoIndex index;
+	// FilteredList listens weakly to the index
+	private FilteredList<ToDo> visibleTodos;
+	private VBox vbox;
+	private List<ToDo> removed;
+	private ObservableList<ToDo> plain;
+
+	@Setup(Level.Trial)
+	public void startToolkit() {
+		Platform.startup(() -> {});
+	}
+
+	@Setup(Level.Invocation)
+	public void setup() {
+		var list = ToDoFixtures.todos(size);
+		removed = new ArrayList<>(size / 2);
+		for (int i = 1; i < size; i += 2) {
+			removed.add(list.get(i));
+		}
+		todos = FXCollections.observableArrayList(list);
+		plain = FXCollections.observableArrayList(list);
+		index = new SortedToDoIndex(todos);
+		visibleTodos = new FilteredList<>(index);
+		vbox = show(visibleTodos);
+	}
+
+	// The rows follow the list as in MainController.initVBox, which removes the rows of a change at once
+	private static VBox show(ObservableList<ToDo> visibleTodos) {
+		var vbox = new VBox();
+		Map<ToDo, Node> todoNodes = new HashMap<>();
+		visibleTodos.forEach(todo -> {
+			var node = new Region();
+			todoNodes.put(todo, node);
+			vbox.getChildren().add(node);
+		});
+		visibleTodos.addListener((ListChangeListener<ToDo>) change -> {
+			Set<Node> removedNodes = new HashSet<>();
+			while (change.next()) {
+				change.getRemoved().forEach(todo -> {
+					var node = todoNodes.remove(todo);
+					if (node != null) {
+						removedNodes.add(node);
+					}
+				});
+			}
+			if (!removedNodes.isEmpty()) {
+				vbox.getChildren().removeAll(removedNodes);
+			}
+		});
+		return vbox;
+	}
+
+	@Benchmark
+	public VBox removeAll() {
+		todos.removeAll(new HashSet<>(removed));
+		return vbox;
+	}
+
+	@Benchmark
+	public List<ToDo> removeAllUnindexed() {
+		plain.removeAll(new HashSet<>(removed));
+		return plain;
+	}
+
+	@Benchmark
+	public VBox removeEach() {
+		removed.forEach(todos::remove);
+		return vbox;
+	}
+}
@@ -0,0 +1,78 @@
+package com.example.model;
+
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import javafx.collections.FXCollections;
+import javafx.collections.ObservableList;
+
+/**
+ * Queries and incremental updates of ToDoSearchIndex.
+ * Titles combine a few words from a small vocabulary with a unique number, e.g. "Call plumber 4711".
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SearchBenchmark {
+	private static final String[] WORDS = { "call", "plumber", "write", "report", "buy", "milk", "review", "pull",
+			"request", "book", "flight", "pay", "invoice", "clean", "garage", "prepare", "slides" };
+
+	@Param({ "1000", "10000", "100000" })
+	private int size;
+
+	private ObservableList<ToDo> todos;
+	private ToDoSearchIndex index;
+	private ToDo edited;
+	private int edits;
+
+	@Setup
+	public void setup() {
+		var date = ToDoFixtures.TODAY;
+		todos = FXCollections.observableArrayList();
+		for (int i = 1; i <= size; i++) {
+			todos.add(new ToDo(i, title(i), date, i % 5 + 1, i % 3 == 0));
+		}
+		index = new ToDoSearchIndex(todos);
+		edited = todos.get(size / 2);
+	}
+
+	static String title(int i) {
+		return WORDS[i % WORDS.length] + " " + WORDS[(i * 7) % WORDS.length] + " " + i;
+	}
+
+	// One number
+	@Benchmark
+	public Set<ToDo> searchUniqueToken() {
+		return index.search(Integer.toString(size / 2));
+	}
+
+	// A word and the beginning of a number, as while typing
+	@Benchmark
+	public Set<ToDo> searchWordAndPrefix() {
+		return index.search("invoice 42");
+	}
+
+	// Many matches are returned
+	@Benchmark
+	public Set<ToDo> searchCommonWord() {
+		return index.search("plumber");
+	}
+
+	@Benchmark
+	@OutputTimeUnit(TimeUnit.NANOSECONDS)
+	public ToDo updateTitle() {
+		edited.setTitle("renamed task " + (edits++ & 1023));
+		return edited;
+	}
+}
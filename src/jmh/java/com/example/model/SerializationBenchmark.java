@@ -0,0 +1,113 @@
+package com.example.model;
+
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import com.google.gson.Gson;
+
+/**
+ * JSON hot paths of ToDoService, with the streaming TypeAdapters of ToDoJson
+ * and with the tree based adapters of TreeAdapters for comparison.
+ * Allocation per operation is reported with: gradle jmh -Pjmh.args="-f 1 -wi 3 -i 5 -prof gc"
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SerializationBenchmark {
+	private static final LocalDate date = ToDoFixtures.TODAY;
+
+	@State(Scope.Benchmark)
+	public static class Codec {
+		@Param({ "streaming", "tree" })
+		private String adapters;
+
+		private Gson gson;
+		private String dateJson;
+
+		@Setup
+		public void setup() {
+			gson = adapters.equals("streaming") ? ToDoJson.createGson() : TreeAdapters.createGson();
+			dateJson = gson.toJson(date);
+		}
+	}
+
+	// Body of GET /todos with size ToDos
+	@State(Scope.Benchmark)
+	public static class GetAllBody {
+		@Param({ "1000", "10000", "100000" })
+		private int size;
+
+		private String json;
+
+		@Setup
+		public void setup() {
+			json = ToDoJson.createGson().toJson(new ToDoJson.GetResult(ToDoFixtures.todos(size), null));
+		}
+	}
+
+	@Benchmark
+	public ToDoJson.GetResult deserializeGetAll(Codec codec, GetAllBody body) {
+		return codec.gson.fromJson(body.json, ToDoJson.GetResult.class);
+	}
+
+	@Benchmark
+	@OutputTimeUnit(TimeUnit.NANOSECONDS)
+	public ToDoJson.PostResult deserializePostResult(Codec codec) {
+		return codec.gson.fromJson(
+				"{\"todo\":{\"id\":1,\"title\":\"Task number 1\",\"date\":\"2026-10-17\",\"priority\":3,\"completed\":false}}",
+				ToDoJson.PostResult.class);
+	}
+
+	@Benchmark
+	@OutputTimeUnit(TimeUnit.NANOSECONDS)
+	public String serializePostParams(Codec codec) {
+		return codec.gson.toJson(new ToDoJson.PostParams("Task number 1", date, 3, false));
+	}
+
+	@Benchmark
+	@OutputTimeUnit(TimeUnit.NANOSECONDS)
+	public String serializeTitleParam(Codec codec) {
+		return codec.gson.toJson(new ToDoJson.TitleParam("Task number 1"));
+	}
+
+	@Benchmark
+	@OutputTimeUnit(TimeUnit.NANOSECONDS)
+	public String serializeDateParam(Codec codec) {
+		return codec.gson.toJson(new ToDoJson.DateParam(date.toString()));
+	}
+
+	@Benchmark
+	@OutputTimeUnit(TimeUnit.NANOSECONDS)
+	public String serializePriorityParam(Codec codec) {
+		return codec.gson.toJson(new ToDoJson.PriorityParam(3));
+	}
+
+	@Benchmark
+	@OutputTimeUnit(TimeUnit.NANOSECONDS)
+	public String serializeCompletedParam(Codec codec) {
+		return codec.gson.toJson(new ToDoJson.CompletedParam(true));
+	}
+
+	@Benchmark
+	@OutputTimeUnit(TimeUnit.NANOSECONDS)
+	public LocalDate localDateRoundTrip(Codec codec) {
+		return codec.gson.fromJson(codec.gson.toJson(date), LocalDate.class);
+	}
+
+	@Benchmark
+	@OutputTimeUnit(TimeUnit.NANOSECONDS)
+	public LocalDate localDateDeserialize(Codec codec) {
+		return codec.gson.fromJson(codec.dateJson, LocalDate.class);
+	}
+}
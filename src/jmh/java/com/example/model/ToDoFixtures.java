@@ -0,0 +1,28 @@
+package com.example.model;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * ToDos shared by the benchmarks: ids 1 to size, dates within a year from 2026-10-17,
+ * random priorities and every third ToDo completed on average. The same size gives the same ToDos.
+ */
+final class ToDoFixtures {
+	static final LocalDate TODAY = LocalDate.of(2026, 10, 17);
+
+	private ToDoFixtures() {
+	}
+
+	// In random order of date, as parsed from the server
+	static List<ToDo> todos(int size) {
+		var random = new Random(42);
+		List<ToDo> todos = new ArrayList<>(size);
+		for (int i = 1; i <= size; i++) {
+			todos.add(new ToDo(i, "Task number " + i, TODAY.plusDays(random.nextInt(365)), random.nextInt(5) + 1,
+					random.nextInt(3) == 0));
+		}
+		return todos;
+	}
+}
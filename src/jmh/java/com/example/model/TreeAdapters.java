@@ -0,0 +1,77 @@
+package com.example.model;
+
+import java.lang.reflect.Type;
+import java.time.LocalDate;
+
+import org.hildan.fxgson.FxGson;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonDeserializationContext;
+import com.google.gson.JsonDeserializer;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonNull;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonPrimitive;
+import com.google.gson.JsonSerializationContext;
+import com.google.gson.JsonSerializer;
+
+/**
+ * Baseline for SerializationBenchmark: the JsonSerializer/JsonDeserializer adapters used before
+ * the streaming TypeAdapters of ToDoJson. Each value goes through a JsonElement tree,
+ * and the records are handled by reflection.
+ */
+final class TreeAdapters {
+	private TreeAdapters() {
+	}
+
+	static Gson createGson() {
+		return FxGson.coreBuilder()
+				.registerTypeAdapter(LocalDate.class, new LocalDateTreeAdapter())
+				.registerTypeAdapter(ToDo.class, new ToDoTreeAdapter())
+				.create();
+	}
+
+	private static class LocalDateTreeAdapter implements JsonSerializer<LocalDate>, JsonDeserializer<LocalDate> {
+		@Override
+		public JsonElement serialize(LocalDate src, Type typeOfSrc, JsonSerializationContext context) {
+			return new JsonPrimitive(src.toString());
+		}
+
+		@Override
+		public LocalDate deserialize(JsonElement json, Type typeOfT, JsonDeserializationContext context) {
+			return LocalDate.parse(json.getAsString());
+		}
+	}
+
+	private static class ToDoTreeAdapter implements JsonSerializer<ToDo>, JsonDeserializer<ToDo> {
+		@Override
+		public JsonElement serialize(ToDo src, Type typeOfSrc, JsonSerializationContext context) {
+			var json = new JsonObject();
+			json.addProperty("id", src.getId());
+			json.addProperty(ToDo.TITLE, src.getTitle());
+			json.add(ToDo.DATE, src.getDate() == null ? JsonNull.INSTANCE : context.serialize(src.getDate()));
+			json.addProperty(ToDo.PRIORITY, src.getPriority());
+			json.addProperty(ToDo.COMPLETED, src.isCompleted());
+			return json;
+		}
+
+		@Override
+		public ToDo deserialize(JsonElement json, Type typeOfT, JsonDeserializationContext context) {
+			if (!json.isJsonObject()) {
+				throw new JsonParseException("ToDo must be an object: " + json);
+			}
+			var object = json.getAsJsonObject();
+			var id = object.get("id");
+			var title = object.get(ToDo.TITLE);
+			var date = object.get(ToDo.DATE);
+			var priority = object.get(ToDo.PRIORITY);
+			var completed = object.get(ToDo.COMPLETED);
+			return new ToDo(id == null ? 0 : id.getAsInt(),
+					title == null || title.isJsonNull() ? null : title.getAsString(),
+					date == null || date.isJsonNull() ? null : context.deserialize(date, LocalDate.class),
+					priority == null || priority.isJsonNull() ? 0 : priority.getAsInt(),
+					completed != null && !completed.isJsonNull() && completed.getAsBoolean());
+		}
+	}
+}
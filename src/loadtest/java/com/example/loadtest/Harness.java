@@ -0,0 +1,51 @@
+package com.example.loadtest;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+
+import com.example.model.ToDoService;
+
+import javafx.application.Platform;
+
+// Setup shared by the harnesses
+final class Harness {
+	static final String USER_NAME = "loadtest";
+	static final String PASSWORD = "loadtest";
+
+	private Harness() {}
+
+	// Settings are read from ./settings.json, so a harness runs in its own working directory
+	static void writeSettings(String rootEndPoint, String httpVersion, boolean compression) throws IOException {
+		Files.writeString(Path.of("settings.json"), """
+				{"rootEndPoint": "%s", "httpVersion": "%s", "httpCompression": %b,
+				 "language": "en", "userName": "%s", "password": ""}
+				""".formatted(rootEndPoint, httpVersion, compression, USER_NAME));
+	}
+
+	static ToDoService startService(String rootEndPoint, String httpVersion, boolean compression) throws IOException {
+		writeSettings(rootEndPoint, httpVersion, compression);
+		var started = new CompletableFuture<ToDoService>();
+		Platform.startup(() -> {
+			var service = ToDoService.getInstance();
+			service.password.set(PASSWORD);
+			started.complete(service);
+		});
+		return started.join();
+	}
+
+	// Runs supplier on the JavaFX Application Thread and waits for its result
+	static <T> T fx(Supplier<T> supplier) {
+		var result = new CompletableFuture<T>();
+		Platform.runLater(() -> {
+			try {
+				result.complete(supplier.get());
+			} catch (RuntimeException e) {
+				result.completeExceptionally(e);
+			}
+		});
+		return result.join();
+	}
+}
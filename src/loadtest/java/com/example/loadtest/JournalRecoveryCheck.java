@@ -0,0 +1,255 @@
+package com.example.loadtest;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import com.example.model.OfflineJournal;
+import com.example.model.OfflineJournal.Account;
+import com.example.model.OfflineJournal.Operation;
+import com.example.model.ToDo;
+import com.example.model.ToDoService;
+import com.google.gson.Gson;
+
+import javafx.animation.KeyFrame;
+import javafx.animation.Timeline;
+import javafx.application.Platform;
+import javafx.util.Duration;
+
+/**
+ * Checks that OfflineJournal recovers after a crash, against StubToDoServer:
+ *   - a writer process killed while appending, with its last line torn inside a character,
+ *     loses only the torn operation,
+ *   - operations without ack are replayed in order, with temporary ids resolved,
+ *   - acks written after the journal has been truncated do not disturb the next recovery,
+ *   - operations of another account are neither replayed nor dropped.
+ * Exits with 1 if a check fails.
+ *
+ * Run it with: gradle journalRecoveryCheck
+ */
+public class JournalRecoveryCheck {
+	private static final Path JOURNAL = Path.of("todos.journal");
+	// Longer than the fsync delay of the journal
+	private static final long SETTLE_MILLIS = 600;
+	private static final Gson gson = new Gson();
+	private static final List<String> failures = new ArrayList<>();
+
+	public static void main(String[] args) throws Exception {
+		if (args.length == 1 && args[0].equals("--writer")) {
+			writer();
+			return;
+		}
+		Files.deleteIfExists(JOURNAL);
+		var server = new StubToDoServer(0, Harness.USER_NAME, Harness.PASSWORD);
+		server.loadDataset(5);
+		server.start();
+		var service = Harness.startService(server.getRootEndPoint(), "HTTP_2", true);
+		var ids = service.getAll().stream().map(ToDo::getId).toList();
+
+		killedWriter(ids.get(0));
+		var journal = unackedReplay(service, ids);
+		ackAfterTruncate(journal, ids.get(2));
+		otherAccount(service, ids.get(3), ids.get(4));
+
+		server.stop();
+		failures.forEach(failure -> System.out.println("FAILED: " + failure));
+		System.out.println(failures.isEmpty() ? "All checks passed" : failures.size() + " checks failed");
+		System.exit(failures.isEmpty() ? 0 : 1);
+	}
+
+	// Appends title updates, one per millisecond, until it is killed
+	private static void writer() {
+		Platform.startup(() -> {
+			var journal = new OfflineJournal((temporaryId, todo) -> {});
+			int[] count = { 0 };
+			var timeline = new Timeline(new KeyFrame(Duration.millis(1),
+					e -> journal.appendUpdate(1, "title", "Edit é " + count[0]++)));
+			timeline.setCycleCount(Timeline.INDEFINITE);
+			timeline.play();
+		});
+	}
+
+	private static void killedWriter(int id) throws Exception {
+		var process = new ProcessBuilder(Path.of(System.getProperty("java.home"), "bin", "java").toString(),
+				"-cp", System.getProperty("java.class.path"),
+				"-Dglass.platform=Monocle", "-Dmonocle.platform=Headless", "-Dprism.order=sw",
+				JournalRecoveryCheck.class.getName(), "--writer")
+				.inheritIO()
+				.start();
+		// Kill it well before its retry timer replays anything
+		long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(4);
+		while (lineCount() < 200 && System.nanoTime() < deadline) {
+			Thread.sleep(10);
+		}
+		process.destroyForcibly().waitFor();
+
+		// Tear the last line after the first byte of its é
+		var bytes = Files.readAllBytes(JOURNAL);
+		int end = bytes.length;
+		while (end > 0 && bytes[end - 1] == '\n') {
+			end--;
+		}
+		int torn = end;
+		while (torn > 0 && bytes[torn - 1] != '\n') {
+			torn--;
+		}
+		while (bytes[torn] != (byte) 0xC3) {
+			torn++;
+		}
+		try (var channel = FileChannel.open(JOURNAL, StandardOpenOption.WRITE)) {
+			channel.truncate(torn + 1);
+		}
+		int written = lineCount();
+
+		var journal = Harness.fx(() -> new OfflineJournal((temporaryId, todo) -> {}));
+		var operations = Harness.fx(() -> journal.pendingOperations());
+		check(written > 1, "killed writer: only " + written + " lines written");
+		check(operations.size() == written - 1,
+				"killed writer: " + operations.size() + " operations recovered of " + (written - 1) + " complete lines");
+		for (int i = 0; i < operations.size(); i++) {
+			var op = operations.get(i);
+			if (op.seq() != i + 1 || op.id() != id || !op.value().equals("Edit é " + i)) {
+				failures.add("killed writer: operation " + i + " is " + op);
+				break;
+			}
+		}
+		check(Files.readAllLines(JOURNAL, StandardCharsets.UTF_8).size() == operations.size(),
+				"killed writer: the torn line was not removed from the journal");
+		System.out.println("killed writer: " + operations.size() + " operations recovered");
+	}
+
+	private static OfflineJournal unackedReplay(ToDoService service, List<Integer> ids) throws Exception {
+		int renamed = ids.get(0);
+		int deleted = ids.get(1);
+		writeJournal(List.of(
+				create(1, -1, "Created before the crash"),
+				ack(1, renamed),
+				update(2, -1, "title", "Renamed"),
+				create(3, -2, "Created on replay"),
+				update(4, -2, "priority", "1"),
+				delete(5, deleted)));
+
+		Map<Integer, Integer> created = new ConcurrentHashMap<>();
+		var journal = Harness.fx(() -> new OfflineJournal((temporaryId, todo) -> created.put(temporaryId, todo.getId())));
+		var seqs = Harness.fx(() -> journal.pendingOperations()).stream().map(Operation::seq).toList();
+		check(seqs.equals(List.of(2L, 3L, 4L, 5L)), "unacked replay: pending " + seqs);
+		check(Harness.fx(() -> journal.resolve(-1)) == renamed, "unacked replay: -1 is not resolved");
+		check(Harness.fx(() -> journal.newTemporaryId()) == -3, "unacked replay: temporary id reused");
+
+		Harness.fx(() -> journal.replay()).join();
+		var todos = service.getAll();
+		check(todos.stream().anyMatch(todo -> todo.getId() == renamed && todo.getTitle().equals("Renamed")),
+				"unacked replay: update of a temporary id created before the crash");
+		check(todos.stream().anyMatch(todo -> todo.getId() == created.get(-2)
+				&& todo.getTitle().equals("Created on replay") && todo.getPriority() == 1),
+				"unacked replay: create and its update");
+		check(todos.stream().noneMatch(todo -> todo.getId() == deleted), "unacked replay: delete");
+
+		Thread.sleep(SETTLE_MILLIS);
+		// At most acks written after the truncation are left, which recover nothing
+		check(Files.readAllLines(JOURNAL).stream().allMatch(line -> line.contains("\"ack\"")),
+				"unacked replay: the journal was not truncated after the replay");
+		System.out.println("unacked replay: " + seqs.size() + " operations replayed");
+		return journal;
+	}
+
+	private static void ackAfterTruncate(OfflineJournal journal, int id) throws Exception {
+		// The journal of the last check has been truncated. It goes on appending.
+		Harness.fx(() -> {
+			journal.appendUpdate(id, "title", "After truncate");
+			return null;
+		});
+		long seq = Harness.fx(() -> journal.pendingOperations()).get(0).seq();
+		Thread.sleep(SETTLE_MILLIS);
+		var lines = Files.readAllLines(JOURNAL, StandardCharsets.UTF_8);
+		var operationLines = lines.stream().filter(line -> !line.contains("\"ack\"")).toList();
+		check(operationLines.size() == 1 && operationLines.get(0).contains("After truncate"),
+				"ack after truncate: journal after truncation is " + lines);
+
+		// Acks which the writer appended after truncating, then the crash
+		writeJournal(List.of(ack(seq - 2, 0), ack(seq - 1, 0), update(seq, id, "title", "After truncate")));
+		var recovered = Harness.fx(() -> new OfflineJournal((temporaryId, todo) -> {}));
+		var operations = Harness.fx(() -> recovered.pendingOperations());
+		check(operations.size() == 1 && operations.get(0).seq() == seq,
+				"ack after truncate: recovered " + operations);
+		Harness.fx(() -> {
+			recovered.appendDelete(id);
+			return null;
+		});
+		var next = Harness.fx(() -> recovered.pendingOperations()).get(1).seq();
+		check(next > seq, "ack after truncate: seq " + next + " reused");
+		Thread.sleep(SETTLE_MILLIS);
+		System.out.println("ack after truncate: checked");
+	}
+
+	private static void otherAccount(ToDoService service, int keptId, int deletedId) throws Exception {
+		var current = Harness.fx(() -> Account.current());
+		var other = new Account(current.rootEndPoint(), "someone else");
+		writeJournal(List.of(
+				new Operation(1, OfflineJournal.DELETE, keptId, null, null, null, null, 0, false, other),
+				delete(2, deletedId)));
+		var journal = Harness.fx(() -> new OfflineJournal((temporaryId, todo) -> {}));
+		var seqs = Harness.fx(() -> journal.pendingOperations()).stream().map(Operation::seq).toList();
+		check(seqs.equals(List.of(2L)), "other account: pending " + seqs);
+
+		Harness.fx(() -> journal.replay()).join();
+		var todos = service.getAll();
+		check(todos.stream().anyMatch(todo -> todo.getId() == keptId), "other account: its delete was replayed");
+		check(todos.stream().noneMatch(todo -> todo.getId() == deletedId), "other account: delete of the current account");
+		Thread.sleep(SETTLE_MILLIS);
+		var recovered = Harness.fx(() -> new OfflineJournal((temporaryId, todo) -> {}));
+		check(Harness.fx(() -> recovered.pendingOperations()).isEmpty(), "other account: recovered as pending");
+		check(Files.readAllLines(JOURNAL, StandardCharsets.UTF_8).stream().anyMatch(line -> line.contains("someone else")),
+				"other account: its operation was dropped from the journal");
+		System.out.println("other account: checked");
+	}
+
+	private static Operation create(long seq, int temporaryId, String title) {
+		return new Operation(seq, OfflineJournal.CREATE, temporaryId, null, null, title, null, 3, false, null);
+	}
+
+	private static Operation update(long seq, int id, String field, String value) {
+		return new Operation(seq, OfflineJournal.UPDATE, id, field, value, null, null, 0, false, null);
+	}
+
+	private static Operation delete(long seq, int id) {
+		return new Operation(seq, OfflineJournal.DELETE, id, null, null, null, null, 0, false, null);
+	}
+
+	private static Operation ack(long seq, int id) {
+		return new Operation(seq, "ack", id, null, null, null, null, 0, false, null);
+	}
+
+	private static void writeJournal(List<Operation> operations) throws IOException {
+		Files.write(JOURNAL, operations.stream().map(gson::toJson).toList(), StandardCharsets.UTF_8);
+	}
+
+	private static int lineCount() throws IOException {
+		if (!Files.exists(JOURNAL)) {
+			return 0;
+		}
+		var bytes = Files.readAllBytes(JOURNAL);
+		int count = 0;
+		for (var b : bytes) {
+			if (b == '\n') {
+				count++;
+			}
+		}
+		// A last line without newline counts too
+		return bytes.length > 0 && bytes[bytes.length - 1] != '\n' ? count + 1 : count;
+	}
+
+	private static void check(boolean condition, String failure) {
+		if (!condition) {
+			failures.add(failure);
+		}
+	}
+}
@@ -0,0 +1,213 @@
+package com.example.loadtest;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import com.example.MainController;
+import com.example.MvcApp;
+import com.example.model.Settings;
+import com.example.model.ToDoManager;
+
+import javafx.fxml.FXMLLoader;
+import javafx.scene.Node;
+import javafx.scene.Parent;
+import javafx.scene.Scene;
+import javafx.scene.control.ListView;
+import javafx.scene.control.ScrollPane;
+import javafx.stage.Stage;
+
+/**
+ * Compares the heap and the frame times of the todo list in the VBox and in the virtualized ListView,
+ * with the list of StubToDoServer at several sizes. Each size and list runs headless in its own child process.
+ * Reported per run:
+ *   - model MB: heap of the loaded ToDoManager, view MB: heap of the rows,
+ *   - nodes: nodes in the scene,
+ *   - first frame ms: building the rows, and the CSS and layout pass of the first frame,
+ *   - resize ms: CSS and layout pass after the window has been resized,
+ *   - edit ms: completing the ToDo in the middle, which moves its row, and the next frame,
+ *   - scroll ms: scrolling to the middle of the list and the next frame.
+ *
+ * The VBox takes about 0.5 MB per row, so it is skipped above --vbox-max.
+ *
+ * Run it with: gradle listComparison [-Ploadtest.args="--sizes 1000,10000,100000"]
+ * Options (defaults in parentheses):
+ *   --sizes todos on the server (1000,10000,100000), --vbox-max largest list shown in the VBox (1000)
+ */
+public class ListComparison {
+	private static final long TIMEOUT_SECONDS = 300;
+	private static final String RESULT = "result ";
+
+	public static void main(String[] args) throws Exception {
+		if (args.length == 3 && args[0].equals("--child")) {
+			child(Boolean.parseBoolean(args[1]), Integer.parseInt(args[2]));
+			return;
+		}
+		var options = Options.parse(args);
+		int vboxMax = options.getInt("vbox-max", 1000);
+		System.out.printf("%-10s %7s %9s %8s %8s %15s %10s %8s %10s%n", "list", "todos", "model MB", "view MB",
+				"nodes", "first frame ms", "resize ms", "edit ms", "scroll ms");
+		for (var size : options.get("sizes", "1000,10000,100000").split(",")) {
+			for (var virtualized : new boolean[] { false, true }) {
+				if (!virtualized && Integer.parseInt(size.trim()) > vboxMax) {
+					System.out.printf("%-10s %7s %9s%n", "VBox", size.trim(), "skipped");
+					continue;
+				}
+				var result = run(virtualized, Integer.parseInt(size.trim()));
+				if (result == null) {
+					System.exit(1);
+				}
+				System.out.printf("%-10s %7s %9s %8s %8s %15s %10s %8s %10s%n", virtualized ? "ListView" : "VBox",
+						size.trim(), result[0], result[1], result[2], result[3], result[4], result[5], result[6]);
+			}
+		}
+		System.exit(0);
+	}
+
+	// Returns the columns printed by the child, or null if it has failed
+	private static String[] run(boolean virtualized, int size) throws Exception {
+		var process = new ProcessBuilder(Path.of(System.getProperty("java.home"), "bin", "java").toString(),
+				"-cp", System.getProperty("java.class.path"), "-Xmx4g",
+				"-Dglass.platform=Monocle", "-Dmonocle.platform=Headless", "-Dprism.order=sw",
+				ListComparison.class.getName(), "--child", Boolean.toString(virtualized), Integer.toString(size))
+				.redirectErrorStream(true)
+				.start();
+		var result = new CompletableFuture<String[]>();
+		List<String> output = new ArrayList<>();
+		// Reads the output until the process ends, so that the child never blocks on writing its log
+		Thread.ofVirtual().start(() -> {
+			try (var reader = new BufferedReader(new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8))) {
+				String line;
+				while ((line = reader.readLine()) != null) {
+					if (line.startsWith(RESULT)) {
+						result.complete(line.substring(RESULT.length()).split(" "));
+					} else if (line.contains("Exception") || line.startsWith("\tat ")) {
+						output.add(line);
+					}
+				}
+			} catch (IOException e) {
+				result.completeExceptionally(e);
+			}
+			result.complete(null);
+		});
+		try {
+			var columns = result.get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+			if (columns == null) {
+				System.out.println("FAILED: " + (virtualized ? "ListView" : "VBox") + " with " + size + " todos");
+				output.stream().limit(20).forEach(System.out::println);
+			}
+			return columns;
+		} finally {
+			process.destroyForcibly().waitFor();
+		}
+	}
+
+	private static void child(boolean virtualized, int size) throws Exception {
+		Files.deleteIfExists(Path.of("todos.snapshot"));
+		Files.deleteIfExists(Path.of("todos.journal"));
+		var server = new StubToDoServer(0, Harness.USER_NAME, Harness.PASSWORD);
+		server.loadDataset(size);
+		server.start();
+		Harness.startService(server.getRootEndPoint(), "HTTP_2", true);
+		var manager = Harness.fx(() -> {
+			Settings.getInstance().setVirtualizedList(virtualized);
+			Settings.getInstance().setVirtualizedListThreshold(virtualized ? 0 : Integer.MAX_VALUE);
+			return ToDoManager.getInstance();
+		});
+
+		long empty = usedHeap();
+		Harness.fx(() -> manager.loadInitialData()).join();
+		// MainController.initModel shows the snapshot first, which would add the rows twice
+		Harness.fx(() -> manager.saveSnapshot()).join();
+		Files.deleteIfExists(Path.of("todos.snapshot"));
+		long model = usedHeap();
+
+		var stage = Harness.fx(() -> {
+			var loader = new FXMLLoader(MvcApp.class.getResource("main.fxml"));
+			try {
+				Parent root = loader.load();
+				root.setUserData(loader.getController());
+				var newStage = new Stage();
+				newStage.setScene(new Scene(root, 1000, 700));
+				return newStage;
+			} catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+		});
+		var scene = stage.getScene();
+		long beforeView = usedHeap();
+		long firstFrame = frame(scene, () -> {
+			((MainController) scene.getRoot().getUserData()).initModel();
+			stage.show();
+		});
+		long view = usedHeap();
+		int nodes = Harness.fx(() -> count(scene.getRoot()));
+
+		long resize = frame(scene, () -> stage.setWidth(stage.getWidth() + 100));
+		long edit = frame(scene, () -> {
+			var todo = manager.sortedTodos().get(size / 2);
+			todo.setCompleted(!todo.isCompleted());
+		});
+		long scroll = frame(scene, () -> {
+			if (virtualized) {
+				((ListView<?>) scene.lookup("#todoListView")).scrollTo(size / 2);
+			} else {
+				((ScrollPane) scene.lookup("#scrollPane")).setVvalue(0.5);
+			}
+		});
+
+		System.out.printf("%s%.1f %.1f %d %d %d %d %d%n", RESULT, (model - empty) / 1e6, (view - beforeView) / 1e6,
+				nodes, firstFrame, resize, edit, scroll);
+		server.stop();
+		System.exit(0);
+	}
+
+	// Milliseconds of change and of the CSS and layout pass of the frame after it, without the wait for the pulse
+	private static long frame(Scene scene, Runnable change) {
+		var done = new CompletableFuture<Long>();
+		Harness.fx(() -> {
+			long start = System.nanoTime();
+			change.run();
+			long changed = System.nanoTime() - start;
+			long[] pulseStart = new long[1];
+			Runnable preLayout = () -> pulseStart[0] = System.nanoTime();
+			scene.addPreLayoutPulseListener(preLayout);
+			scene.addPostLayoutPulseListener(new Runnable() {
+				@Override
+				public void run() {
+					scene.removePreLayoutPulseListener(preLayout);
+					scene.removePostLayoutPulseListener(this);
+					done.complete(TimeUnit.NANOSECONDS.toMillis(changed + System.nanoTime() - pulseStart[0]));
+				}
+			});
+			return null;
+		});
+		return done.join();
+	}
+
+	private static long usedHeap() {
+		for (int i = 0; i < 3; i++) {
+			System.gc();
+		}
+		return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+	}
+
+	private static int count(Node node) {
+		int count = 1;
+		if (node instanceof Parent parent) {
+			for (var child : parent.getChildrenUnmodifiable()) {
+				count += count(child);
+			}
+		}
+		return count;
+	}
+}
@@ -0,0 +1,192 @@
+package com.example.loadtest;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import com.example.exceptions.ToDoServiceException;
+import com.example.model.ToDoService;
+
+/**
+ * Drives ToDoService with concurrent simulated users against StubToDoServer
+ * and reports throughput and latency percentiles per operation.
+ *
+ * Run it with: gradle loadTest [-Ploadtest.args="--users 20 --duration 30"]
+ * Options (defaults in parentheses):
+ *   --users (10), --duration seconds (20), --dataset todos on the server (1000),
+ *   --latency server latency in ms (0), --error-rate share of 503 answers (0),
+ *   --mix weights of create:update:delete:getAll (20:65:10:5),
+ *   --http-version HTTP_1_1 or HTTP_2 (HTTP_2), --compression true or false (true)
+ *
+ * Users call the blocking API of ToDoService, so the JavaFX Application Thread is not a bottleneck.
+ * The JavaFX toolkit is still started, because ToDoService delivers async results and state on it.
+ */
+public class LoadHarness {
+	private static final String[] OPERATIONS = { "create", "update", "delete", "getAll" };
+	private static final String[] FIELDS = { "title", "date", "priority", "completed" };
+
+	// Latencies of one operation, recorded by one user
+	private static class Recorder {
+		private long[] nanos = new long[1024];
+		private int count = 0;
+		private int errors = 0;
+
+		void record(long value) {
+			if (count == nanos.length) {
+				nanos = Arrays.copyOf(nanos, count * 2);
+			}
+			nanos[count++] = value;
+		}
+
+		void addAll(Recorder other) {
+			for (int i = 0; i < other.count; i++) {
+				record(other.nanos[i]);
+			}
+			errors += other.errors;
+		}
+
+		double percentileMillis(double p) {
+			if (count == 0) {
+				return 0;
+			}
+			var sorted = Arrays.copyOf(nanos, count);
+			Arrays.sort(sorted);
+			return sorted[(int) Math.min(count - 1, Math.ceil(p * count) - 1)] / 1e6;
+		}
+	}
+
+	private static class User implements Runnable {
+		private final ToDoService service;
+		private final List<Integer> ids;
+		private final int[] mix;
+		private final long deadline;
+		private final Random random;
+		private final Map<String, Recorder> recorders = new LinkedHashMap<>();
+
+		User(ToDoService service, List<Integer> ids, int[] mix, long deadline, long seed) {
+			this.service = service;
+			this.ids = ids;
+			this.mix = mix;
+			this.deadline = deadline;
+			this.random = new Random(seed);
+			for (var operation : OPERATIONS) {
+				recorders.put(operation, new Recorder());
+			}
+		}
+
+		@Override
+		public void run() {
+			int total = Arrays.stream(mix).sum();
+			while (System.nanoTime() < deadline) {
+				int pick = random.nextInt(total);
+				int index = 0;
+				while (pick >= mix[index]) {
+					pick -= mix[index++];
+				}
+				// Nothing to update or delete
+				if (ids.isEmpty() && (index == 1 || index == 2)) {
+					index = 0;
+				}
+
+				var recorder = recorders.get(OPERATIONS[index]);
+				long start = System.nanoTime();
+				try {
+					switch (index) {
+						case 0 -> ids.add(service.create("Load " + random.nextInt(), LocalDate.now(), 3, false).getId());
+						case 1 -> update(ids.get(random.nextInt(ids.size())));
+						case 2 -> {
+							// Swap with the last id, so that removal takes constant time
+							int i = random.nextInt(ids.size());
+							int id = ids.get(i);
+							ids.set(i, ids.get(ids.size() - 1));
+							ids.remove(ids.size() - 1);
+							service.delete(id);
+						}
+						default -> service.getAll();
+					}
+					recorder.record(System.nanoTime() - start);
+				} catch (ToDoServiceException e) {
+					recorder.errors++;
+				}
+			}
+		}
+
+		private void update(int id) throws ToDoServiceException {
+			switch (FIELDS[random.nextInt(FIELDS.length)]) {
+				case "title" -> service.updateTitle(id, "Updated " + random.nextInt());
+				case "date" -> service.updateDate(id, LocalDate.now().plusDays(random.nextInt(30)));
+				case "priority" -> service.updatePriority(id, random.nextInt(5) + 1);
+				default -> service.updateCompleted(id, random.nextBoolean());
+			}
+		}
+	}
+
+	public static void main(String[] args) throws Exception {
+		var options = Options.parse(args);
+		int userCount = options.getInt("users", 10);
+		int durationSeconds = options.getInt("duration", 20);
+		int[] mix = Arrays.stream(options.get("mix", "20:65:10:5").split(":")).mapToInt(Integer::parseInt).toArray();
+		if (mix.length != OPERATIONS.length) {
+			throw new IllegalArgumentException("--mix needs " + OPERATIONS.length + " weights");
+		}
+
+		var server = new StubToDoServer(0, Harness.USER_NAME, Harness.PASSWORD);
+		server.loadDataset(options.getInt("dataset", 1000));
+		server.setLatency(Duration.ofMillis(options.getInt("latency", 0)));
+		server.setErrorRate(options.getDouble("error-rate", 0));
+		server.start();
+
+		var service = Harness.startService(server.getRootEndPoint(), options.get("http-version", "HTTP_2"),
+				Boolean.parseBoolean(options.get("compression", "true")));
+
+		// Each user updates and deletes only its own ToDos
+		List<List<Integer>> ids = new ArrayList<>();
+		for (int i = 0; i < userCount; i++) {
+			ids.add(new ArrayList<>());
+		}
+		service.getAll().forEach(todo -> ids.get(todo.getId() % userCount).add(todo.getId()));
+
+		long start = System.nanoTime();
+		long deadline = start + Duration.ofSeconds(durationSeconds).toNanos();
+		List<User> users = new ArrayList<>();
+		List<Thread> threads = new ArrayList<>();
+		for (int i = 0; i < userCount; i++) {
+			var user = new User(service, ids.get(i), mix, deadline, i);
+			users.add(user);
+			threads.add(Thread.ofVirtual().name("user-" + i).start(user));
+		}
+		for (var thread : threads) {
+			thread.join();
+		}
+		double seconds = (System.nanoTime() - start) / 1e9;
+
+		report(users, seconds, userCount, server);
+		server.stop();
+		System.exit(0);
+	}
+
+	private static void report(List<User> users, double seconds, int userCount, StubToDoServer server) {
+		System.out.printf("%d users, %.1f s, %d requests on the server%n", userCount, seconds, server.getRequestCount());
+		System.out.printf("%-8s %8s %7s %9s %9s %9s %9s%n", "op", "count", "errors", "ops/s", "p50 ms", "p99 ms",
+				"max ms");
+		var all = new Recorder();
+		for (var operation : OPERATIONS) {
+			var merged = new Recorder();
+			users.forEach(user -> merged.addAll(user.recorders.get(operation)));
+			print(operation, merged, seconds);
+			all.addAll(merged);
+		}
+		print("total", all, seconds);
+	}
+
+	private static void print(String name, Recorder recorder, double seconds) {
+		System.out.printf("%-8s %8d %7d %9.1f %9.2f %9.2f %9.2f%n", name, recorder.count, recorder.errors,
+				recorder.count / seconds, recorder.percentileMillis(0.50), recorder.percentileMillis(0.99),
+				recorder.percentileMillis(1.0));
+	}
+}
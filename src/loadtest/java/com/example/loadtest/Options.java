@@ -0,0 +1,32 @@
+package com.example.loadtest;
+
+import java.util.HashMap;
+import java.util.Map;
+
+// Command line options in the form --name value
+class Options {
+	private final Map<String, String> values = new HashMap<>();
+
+	static Options parse(String[] args) {
+		var options = new Options();
+		for (int i = 0; i < args.length; i++) {
+			if (!args[i].startsWith("--") || i + 1 == args.length) {
+				throw new IllegalArgumentException("Expected --name value: " + args[i]);
+			}
+			options.values.put(args[i].substring(2), args[++i]);
+		}
+		return options;
+	}
+
+	String get(String name, String defaultValue) {
+		return values.getOrDefault(name, defaultValue);
+	}
+
+	int getInt(String name, int defaultValue) {
+		return values.containsKey(name) ? Integer.parseInt(values.get(name)) : defaultValue;
+	}
+
+	double getDouble(String name, double defaultValue) {
+		return values.containsKey(name) ? Double.parseDouble(values.get(name)) : defaultValue;
+	}
+}
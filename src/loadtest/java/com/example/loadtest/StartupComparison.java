@@ -0,0 +1,170 @@
+package com.example.loadtest;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.regex.Pattern;
+
+import com.example.MvcApp;
+import com.example.model.ToDoManager;
+
+import javafx.application.Platform;
+import javafx.beans.InvalidationListener;
+import javafx.beans.Observable;
+
+/**
+ * Compares the startup of the app with and without a local snapshot, against StubToDoServer with latency.
+ * The app runs headless in a child process, which StartupTimer reports the time of the first frame
+ * and of the first frame with rows to.
+ * With --ui false, the child only loads the snapshot and the list into ToDoManager, as MainController does,
+ * and reports when the list first has rows. This needs no font or graphics libraries.
+ *
+ * Run it with: gradle startupComparison [-Ploadtest.args="--dataset 10000 --latency 300"]
+ * Options (defaults in parentheses):
+ *   --dataset todos on the server (10000), --latency server latency in ms (300), --runs per setting (3),
+ *   --ui true or false (true)
+ */
+public class StartupComparison {
+	private static final Path SNAPSHOT = Path.of("todos.snapshot");
+	private static final Pattern PHASE = Pattern.compile("(first frame|first rows) (\\d+)");
+	private static final long TIMEOUT_SECONDS = 60;
+
+	private record Startup(long firstFrame, long firstRows) {}
+
+	public static void main(String[] args) throws Exception {
+		if (args.length == 1 && args[0].equals("--app")) {
+			// The java launcher refuses a main class extending Application without JavaFX modules
+			MvcApp.main(new String[0]);
+			return;
+		}
+		if (args.length == 1 && args[0].equals("--model")) {
+			model();
+			return;
+		}
+		var options = Options.parse(args);
+		int runs = options.getInt("runs", 3);
+		var mode = Boolean.parseBoolean(options.get("ui", "true")) ? "--app" : "--model";
+
+		// The app reads an empty password from settings.json
+		var server = new StubToDoServer(0, Harness.USER_NAME, "");
+		server.loadDataset(options.getInt("dataset", 10000));
+		server.setLatency(Duration.ofMillis(options.getInt("latency", 300)));
+		server.start();
+		Harness.writeSettings(server.getRootEndPoint(), "HTTP_2", true);
+		Files.deleteIfExists(Path.of("todos.journal"));
+
+		System.out.printf("%-10s %16s %16s%n", "snapshot", "first frame ms", "first rows ms");
+		for (var withSnapshot : new boolean[] { false, true }) {
+			var startups = new Startup[runs];
+			for (int i = 0; i < runs; i++) {
+				if (!withSnapshot) {
+					Files.deleteIfExists(SNAPSHOT);
+				}
+				try {
+					startups[i] = start(mode);
+				} catch (ExecutionException | TimeoutException e) {
+					System.out.println("FAILED: " + (e.getCause() == null ? e : e.getCause()).getMessage());
+					server.stop();
+					System.exit(1);
+				}
+			}
+			long firstFrame = median(Arrays.stream(startups).mapToLong(Startup::firstFrame).toArray());
+			System.out.printf("%-10s %16s %16d%n", withSnapshot ? "yes" : "no", firstFrame < 0 ? "-" : firstFrame,
+					median(Arrays.stream(startups).mapToLong(Startup::firstRows).toArray()));
+		}
+		server.stop();
+		System.exit(0);
+	}
+
+	// Starts the app and stops it when the rows have been shown and the snapshot has been written
+	private static Startup start(String mode) throws Exception {
+		var process = new ProcessBuilder(Path.of(System.getProperty("java.home"), "bin", "java").toString(),
+				"-cp", System.getProperty("java.class.path"),
+				"-Dglass.platform=Monocle", "-Dmonocle.platform=Headless", "-Dprism.order=sw",
+				StartupComparison.class.getName(), mode)
+				.redirectErrorStream(true)
+				.start();
+		var startup = new CompletableFuture<Startup>();
+		// Reads the output until the process ends, so that the app never blocks on writing its log
+		Thread.ofVirtual().start(() -> {
+			long firstFrame = -1;
+			try (var reader = new BufferedReader(new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8))) {
+				String line;
+				while ((line = reader.readLine()) != null) {
+					if (line.contains("Exception in Application start method")) {
+						// The toolkit keeps the process running
+						startup.completeExceptionally(new IllegalStateException("The app failed to start"));
+						System.out.println(line);
+					}
+					if (!line.contains("Startup (ms since JVM start)")) {
+						continue;
+					}
+					var matcher = PHASE.matcher(line);
+					long firstRows = -1;
+					while (matcher.find()) {
+						long millis = Long.parseLong(matcher.group(2));
+						if (matcher.group(1).equals("first frame")) {
+							firstFrame = millis;
+						} else {
+							firstRows = millis;
+						}
+					}
+					if (firstRows >= 0) {
+						startup.complete(new Startup(firstFrame, firstRows));
+					}
+				}
+			} catch (IOException e) {
+				startup.completeExceptionally(e);
+			}
+			startup.completeExceptionally(new IllegalStateException("The app exited without showing rows"));
+		});
+		try {
+			var result = startup.get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+			// The snapshot is written in the background after the list has been loaded
+			long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(TIMEOUT_SECONDS);
+			while (!Files.exists(SNAPSHOT) && System.nanoTime() < deadline) {
+				Thread.sleep(50);
+			}
+			return result;
+		} finally {
+			process.destroyForcibly().waitFor();
+		}
+	}
+
+	// Reports like StartupTimer, which is not accessible from here
+	private static void model() {
+		long startMillis = ProcessHandle.current().info().startInstant().orElseGet(Instant::now).toEpochMilli();
+		Platform.startup(() -> {
+			var manager = ToDoManager.getInstance();
+			var todos = manager.todosProperty();
+			InvalidationListener firstRows = new InvalidationListener() {
+				@Override
+				public void invalidated(Observable observable) {
+					if (!todos.isEmpty()) {
+						todos.removeListener(this);
+						System.out.println("Startup (ms since JVM start): first rows "
+								+ (System.currentTimeMillis() - startMillis));
+					}
+				}
+			};
+			todos.addListener(firstRows);
+			manager.loadSnapshot();
+			manager.loadInitialData();
+		});
+	}
+
+	private static long median(long[] values) {
+		Arrays.sort(values);
+		return values[values.length / 2];
+	}
+}
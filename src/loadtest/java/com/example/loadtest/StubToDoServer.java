@@ -0,0 +1,437 @@
+package com.example.loadtest;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.logging.Logger;
+import java.util.zip.GZIPOutputStream;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonParser;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * In-process implementation of the /todos REST contract of the ToDo server.
+ * It checks Basic auth, supports ETag/If-None-Match, gzip, the PATCH bulk update and from/to date ranges,
+ * and can add latency and fail a share of the requests with 503.
+ *
+ * GET /todos/changes is a Server-Sent Events stream of the changes, e.g.
+ * <pre>
+ * id: 42
+ * event: upsert
+ * data: {"id":3,"title":"Task 3","date":"2026-10-17","priority":3,"completed":false}
+ *
+ * id: 43
+ * event: delete
+ * data: {"id":3}
+ * </pre>
+ * The stream starts with the id of the current version and no event.
+ * With a Last-Event-ID header, the events after it are sent first. If they are no longer kept,
+ * a reset event tells the client to reload the list. A comment is sent as keep-alive when nothing changes.
+ *
+ * Run it standalone with: gradle stubServer [-Pstub.args="--port 8080 --dataset 1000"]
+ */
+public class StubToDoServer {
+	public static final String CONTEXT_PATH = "/todo-server/api";
+	private static final Logger logger = Logger.getLogger(StubToDoServer.class.getName());
+
+	private final HttpServer server;
+	private final String authorization;
+	// Stored objects are never modified, so GET can serialize them while other requests update the map
+	private final Map<Integer, JsonObject> todos = new ConcurrentSkipListMap<>();
+	private final AtomicInteger nextId = new AtomicInteger(1);
+	// Incremented on each change, used as ETag
+	private final AtomicLong version = new AtomicLong();
+	private final AtomicLong requestCount = new AtomicLong();
+	// Recent changes by version. Changes are applied and recorded under changeLock, so events are in order.
+	// A lock rather than synchronized, because waiting streams must not pin their virtual threads.
+	private final NavigableMap<Long, Event> events = new TreeMap<>();
+	private final ReentrantLock changeLock = new ReentrantLock();
+	private final Condition changed = changeLock.newCondition();
+	private volatile int maxEvents = 10_000;
+	private volatile Duration keepAliveInterval = Duration.ofSeconds(15);
+	private volatile boolean stopped = false;
+	private volatile Duration latency = Duration.ZERO;
+	private volatile double errorRate = 0;
+
+	static {
+		// Headers and body are written separately. Without TCP_NODELAY each response with a body
+		// waits for the delayed ACK of the client, which adds about 40 ms.
+		System.setProperty("sun.net.httpserver.nodelay", "true");
+	}
+
+	public StubToDoServer(int port, String userName, String password) throws IOException {
+		authorization = "Basic " + Base64.getEncoder()
+				.encodeToString((userName + ":" + password).getBytes(StandardCharsets.UTF_8));
+		server = HttpServer.create(new InetSocketAddress("localhost", port), 0);
+		server.createContext(CONTEXT_PATH + "/todos", this::handle);
+		server.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+	}
+
+	public void start() {
+		server.start();
+		logger.info("Stub server listening on " + getRootEndPoint());
+	}
+
+	public void stop() {
+		stopped = true;
+		changeLock.lock();
+		try {
+			changed.signalAll();
+		} finally {
+			changeLock.unlock();
+		}
+		server.stop(0);
+	}
+
+	public String getRootEndPoint() {
+		return "http://localhost:" + server.getAddress().getPort() + CONTEXT_PATH;
+	}
+
+	public void setLatency(Duration latency) {
+		this.latency = latency;
+	}
+
+	// Share of requests answered with 503 Service Unavailable, between 0 and 1
+	public void setErrorRate(double errorRate) {
+		this.errorRate = errorRate;
+	}
+
+	// Number of changes kept for clients which reconnect with Last-Event-ID
+	public void setMaxEvents(int maxEvents) {
+		this.maxEvents = maxEvents;
+	}
+
+	public void setKeepAliveInterval(Duration keepAliveInterval) {
+		this.keepAliveInterval = keepAliveInterval;
+	}
+
+	public long getRequestCount() {
+		return requestCount.get();
+	}
+
+	public int size() {
+		return todos.size();
+	}
+
+	public void loadDataset(int size) {
+		var today = LocalDate.now();
+		for (int i = 0; i < size; i++) {
+			var todo = new JsonObject();
+			todo.addProperty("title", "Task " + (i + 1));
+			todo.addProperty("date", today.plusDays(i % 365).toString());
+			todo.addProperty("priority", i % 5 + 1);
+			todo.addProperty("completed", i % 3 == 0);
+			insert(todo);
+		}
+	}
+
+	private JsonObject insert(JsonObject todo) {
+		changeLock.lock();
+		try {
+			int id = nextId.getAndIncrement();
+			todo.addProperty("id", id);
+			todos.put(id, todo);
+			publish("upsert", todo);
+			return todo;
+		} finally {
+			changeLock.unlock();
+		}
+	}
+
+	private record Event(long id, String type, JsonObject data) {}
+
+	// Must be called under changeLock
+	private void publish(String type, JsonObject data) {
+		long id = version.incrementAndGet();
+		events.put(id, new Event(id, type, data));
+		while (events.size() > maxEvents) {
+			events.pollFirstEntry();
+		}
+		changed.signalAll();
+	}
+
+	private static JsonObject idObject(int id) {
+		var data = new JsonObject();
+		data.addProperty("id", id);
+		return data;
+	}
+
+	private void handle(HttpExchange exchange) throws IOException {
+		try (exchange) {
+			handleRequest(exchange);
+		}
+	}
+
+	private void handleRequest(HttpExchange exchange) throws IOException {
+		try {
+			requestCount.incrementAndGet();
+			if (!latency.isZero()) {
+				Thread.sleep(latency);
+			}
+			if (!authorization.equals(exchange.getRequestHeaders().getFirst("Authorization"))) {
+				send(exchange, 401, null);
+				return;
+			}
+			if (errorRate > 0 && ThreadLocalRandom.current().nextDouble() < errorRate) {
+				send(exchange, 503, null);
+				return;
+			}
+
+			// e.g. "", "/12" or "/12/title"
+			var path = exchange.getRequestURI().getPath().substring((CONTEXT_PATH + "/todos").length());
+			var segments = path.isEmpty() ? new String[0] : path.substring(1).split("/");
+			var body = new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8);
+
+			switch (exchange.getRequestMethod() + " " + segments.length) {
+				case "GET 0" -> getAll(exchange);
+				case "GET 1" -> {
+					if (segments[0].equals("changes")) {
+						streamChanges(exchange);
+					} else {
+						send(exchange, 405, null);
+					}
+				}
+				case "POST 0" -> create(exchange, body);
+				case "DELETE 0" -> {
+					changeLock.lock();
+					try {
+						todos.keySet().forEach(id -> publish("delete", idObject(id)));
+						todos.clear();
+					} finally {
+						changeLock.unlock();
+					}
+					send(exchange, 204, null);
+				}
+				case "DELETE 1" -> {
+					int id = Integer.parseInt(segments[0]);
+					JsonObject removed;
+					changeLock.lock();
+					try {
+						removed = todos.remove(id);
+						if (removed != null) {
+							publish("delete", idObject(id));
+						}
+					} finally {
+						changeLock.unlock();
+					}
+					send(exchange, removed == null ? 404 : 204, null);
+				}
+				case "PUT 2" -> updateField(exchange, Integer.parseInt(segments[0]), segments[1], body);
+				case "PATCH 0" -> updateBatch(exchange, body);
+				default -> send(exchange, 405, null);
+			}
+		} catch (NumberFormatException | JsonParseException | IllegalStateException | DateTimeParseException e) {
+			send(exchange, 400, null);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	private void getAll(HttpExchange exchange) throws IOException {
+		var query = exchange.getRequestURI().getQuery();
+		if (query != null) {
+			getRange(exchange, query);
+			return;
+		}
+		var etag = "\"" + version.get() + "\"";
+		exchange.getResponseHeaders().set("ETag", etag);
+		if (etag.equals(exchange.getRequestHeaders().getFirst("If-None-Match"))) {
+			send(exchange, 304, null);
+			return;
+		}
+		var array = new JsonArray(todos.size());
+		todos.values().forEach(array::add);
+		var result = new JsonObject();
+		result.add("todos", array);
+		send(exchange, 200, result);
+	}
+
+	// Query is e.g. from=2026-10-01&to=2026-10-31, both bounds inclusive and optional
+	private void getRange(HttpExchange exchange, String query) throws IOException {
+		LocalDate from = null;
+		LocalDate to = null;
+		for (var parameter : query.split("&")) {
+			var pair = parameter.split("=", 2);
+			if (pair.length == 2 && pair[0].equals("from")) {
+				from = LocalDate.parse(pair[1]);
+			} else if (pair.length == 2 && pair[0].equals("to")) {
+				to = LocalDate.parse(pair[1]);
+			}
+		}
+		var array = new JsonArray();
+		for (var todo : todos.values()) {
+			var date = todo.get("date");
+			if (date == null || date.isJsonNull()) {
+				continue;
+			}
+			var day = LocalDate.parse(date.getAsString());
+			if ((from == null || !day.isBefore(from)) && (to == null || !day.isAfter(to))) {
+				array.add(todo);
+			}
+		}
+		var result = new JsonObject();
+		result.add("todos", array);
+		send(exchange, 200, result);
+	}
+
+	private void create(HttpExchange exchange, String body) throws IOException {
+		var todo = JsonParser.parseString(body).getAsJsonObject();
+		var result = new JsonObject();
+		result.add("todo", insert(todo));
+		send(exchange, 201, result);
+	}
+
+	private void updateField(HttpExchange exchange, int id, String fieldName, String body) throws IOException {
+		var value = JsonParser.parseString(body).getAsJsonObject().get(fieldName);
+		if (value == null) {
+			send(exchange, 400, null);
+			return;
+		}
+		JsonObject updated;
+		changeLock.lock();
+		try {
+			updated = todos.computeIfPresent(id, (key, todo) -> {
+				var copy = todo.deepCopy();
+				copy.add(fieldName, value);
+				return copy;
+			});
+			if (updated != null) {
+				publish("upsert", updated);
+			}
+		} finally {
+			changeLock.unlock();
+		}
+		send(exchange, updated == null ? 404 : 204, null);
+	}
+
+	// Body is [{"id":1,"completed":true}, ...]
+	private void updateBatch(HttpExchange exchange, String body) throws IOException {
+		var changes = JsonParser.parseString(body).getAsJsonArray();
+		changeLock.lock();
+		try {
+			for (var element : changes) {
+				var change = element.getAsJsonObject();
+				var updated = todos.computeIfPresent(change.get("id").getAsInt(), (key, todo) -> {
+					var copy = todo.deepCopy();
+					change.entrySet().forEach(entry -> copy.add(entry.getKey(), entry.getValue()));
+					return copy;
+				});
+				if (updated != null) {
+					publish("upsert", updated);
+				}
+			}
+		} finally {
+			changeLock.unlock();
+		}
+		send(exchange, 204, null);
+	}
+
+	// Writes events until the client disconnects or the server stops
+	private void streamChanges(HttpExchange exchange) throws IOException, InterruptedException {
+		long lastEventId;
+		var lastEventIdHeader = exchange.getRequestHeaders().getFirst("Last-Event-ID");
+		changeLock.lock();
+		try {
+			lastEventId = lastEventIdHeader == null ? version.get() : Long.parseLong(lastEventIdHeader.trim());
+		} finally {
+			changeLock.unlock();
+		}
+		exchange.getResponseHeaders().set("Content-Type", "text/event-stream");
+		exchange.getResponseHeaders().set("Cache-Control", "no-cache");
+		exchange.sendResponseHeaders(200, 0);
+		var out = exchange.getResponseBody();
+		// Sent at once, so that the client can reconnect from here even if nothing changes
+		out.write((": subscribed\nid: " + lastEventId + "\n\n").getBytes(StandardCharsets.UTF_8));
+		out.flush();
+		while (!stopped) {
+			List<Event> pending = new ArrayList<>();
+			boolean reset = false;
+			changeLock.lock();
+			try {
+				if (lastEventId == version.get()) {
+					changed.await(keepAliveInterval.toMillis(), TimeUnit.MILLISECONDS);
+				}
+				long current = version.get();
+				// Events after lastEventId have been dropped, or lastEventId is from before a restart
+				if (lastEventId > current
+						|| lastEventId < current && (events.isEmpty() || events.firstKey() > lastEventId + 1)) {
+					reset = true;
+					lastEventId = current;
+				} else if (lastEventId < current) {
+					pending.addAll(events.tailMap(lastEventId, false).values());
+				}
+			} finally {
+				changeLock.unlock();
+			}
+			if (reset) {
+				writeEvent(out, new Event(lastEventId, "reset", new JsonObject()));
+			} else if (pending.isEmpty()) {
+				out.write(": keep-alive\n\n".getBytes(StandardCharsets.UTF_8));
+			} else {
+				for (var event : pending) {
+					writeEvent(out, event);
+				}
+				lastEventId = pending.get(pending.size() - 1).id();
+			}
+			out.flush();
+		}
+	}
+
+	private static void writeEvent(OutputStream out, Event event) throws IOException {
+		var text = "id: " + event.id() + "\nevent: " + event.type() + "\ndata: " + event.data() + "\n\n";
+		out.write(text.getBytes(StandardCharsets.UTF_8));
+	}
+
+	private void send(HttpExchange exchange, int statusCode, JsonObject json) throws IOException {
+		if (json == null) {
+			exchange.sendResponseHeaders(statusCode, -1);
+			return;
+		}
+		byte[] bytes = json.toString().getBytes(StandardCharsets.UTF_8);
+		var acceptEncoding = exchange.getRequestHeaders().getFirst("Accept-Encoding");
+		if (acceptEncoding != null && acceptEncoding.contains("gzip")) {
+			var compressed = new ByteArrayOutputStream();
+			try (var out = new GZIPOutputStream(compressed)) {
+				out.write(bytes);
+			}
+			bytes = compressed.toByteArray();
+			exchange.getResponseHeaders().set("Content-Encoding", "gzip");
+		}
+		exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+		exchange.sendResponseHeaders(statusCode, bytes.length);
+		exchange.getResponseBody().write(bytes);
+	}
+
+	public static void main(String[] args) throws IOException {
+		var options = Options.parse(args);
+		var server = new StubToDoServer(options.getInt("port", 8080), options.get("user", "admin"),
+				options.get("password", "admin"));
+		server.loadDataset(options.getInt("dataset", 100));
+		server.setLatency(Duration.ofMillis(options.getInt("latency", 0)));
+		server.setErrorRate(options.getDouble("error-rate", 0));
+		server.start();
+	}
+}
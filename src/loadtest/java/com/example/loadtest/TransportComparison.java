@@ -0,0 +1,65 @@
+package com.example.loadtest;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Base64;
+
+import com.example.model.HttpTransport;
+import com.example.model.Settings;
+
+/**
+ * Compares payload bytes and latency of GET /todos with and without gzip, through HttpTransport
+ * as ToDoService uses it, against StubToDoServer.
+ * The stub speaks HTTP/1.1 only, so the HTTP version is not compared.
+ *
+ * Run it with: gradle transportComparison [-Ploadtest.args="--dataset 20000 --latency 20"]
+ * Options (defaults in parentheses):
+ *   --dataset todos on the server (20000), --requests measured requests per setting (30),
+ *   --latency server latency in ms (0)
+ */
+public class TransportComparison {
+	private static final int WARMUP_REQUESTS = 5;
+
+	public static void main(String[] args) throws Exception {
+		var options = Options.parse(args);
+		int requests = options.getInt("requests", 30);
+
+		var server = new StubToDoServer(0, Harness.USER_NAME, Harness.PASSWORD);
+		server.loadDataset(options.getInt("dataset", 20000));
+		server.setLatency(Duration.ofMillis(options.getInt("latency", 0)));
+		server.start();
+		Harness.writeSettings(server.getRootEndPoint(), "HTTP_1_1", false);
+		var settings = Settings.getInstance();
+		var authorization = "Basic " + Base64.getEncoder()
+				.encodeToString((Harness.USER_NAME + ":" + Harness.PASSWORD).getBytes(StandardCharsets.UTF_8));
+
+		System.out.printf("%-12s %12s %12s %9s %9s%n", "compression", "wire bytes", "body chars", "p50 ms", "p99 ms");
+		for (var compression : new boolean[] { false, true }) {
+			settings.setHttpCompression(compression);
+			var transport = new HttpTransport(settings);
+			long wireBytes = 0;
+			int bodyChars = 0;
+			long[] nanos = new long[requests];
+			for (int i = -WARMUP_REQUESTS; i < requests; i++) {
+				var req = transport.newRequest("/todos").header("Authorization", authorization).GET().build();
+				long start = System.nanoTime();
+				var res = transport.client().send(req, transport.ofString());
+				long elapsed = System.nanoTime() - start;
+				if (res.statusCode() != 200) {
+					throw new IllegalStateException("GET /todos: " + res.statusCode());
+				}
+				if (i >= 0) {
+					nanos[i] = elapsed;
+					wireBytes = res.headers().firstValueAsLong("Content-Length").orElse(-1);
+					bodyChars = res.body().length();
+				}
+			}
+			Arrays.sort(nanos);
+			System.out.printf("%-12s %12d %12d %9.2f %9.2f%n", compression ? "gzip" : "none", wireBytes, bodyChars,
+					nanos[requests / 2] / 1e6, nanos[(int) Math.ceil(requests * 0.99) - 1] / 1e6);
+		}
+		server.stop();
+		System.exit(0);
+	}
+}
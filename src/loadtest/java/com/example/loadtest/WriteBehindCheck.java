@@ -0,0 +1,118 @@
+package com.example.loadtest;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.BiFunction;
+
+import com.example.model.ToDo;
+import com.example.model.ToDoService;
+import com.example.model.WriteBehindQueue;
+
+import javafx.animation.KeyFrame;
+import javafx.animation.Timeline;
+import javafx.application.Platform;
+import javafx.util.Duration;
+
+/**
+ * Compares the requests of title edits sent one by one with those sent through WriteBehindQueue,
+ * against StubToDoServer with latency. Exits with 1 if the queue does not save requests,
+ * loses an edit, or reports an id in flight as not pending.
+ *
+ * Run it with: gradle writeBehindCheck [-Ploadtest.args="--edits 200 --latency 100"]
+ * Options (defaults in parentheses):
+ *   --todos edited ToDos (20), --edits title edits (200), --interval ms between edits (10),
+ *   --latency server latency in ms (100), --flush-size (50), --flush-interval ms (50)
+ */
+public class WriteBehindCheck {
+	public static void main(String[] args) throws Exception {
+		var options = Options.parse(args);
+		int todoCount = options.getInt("todos", 20);
+		int edits = options.getInt("edits", 200);
+		int interval = options.getInt("interval", 10);
+		int flushSize = options.getInt("flush-size", 50);
+		int flushInterval = options.getInt("flush-interval", 50);
+
+		var server = new StubToDoServer(0, Harness.USER_NAME, Harness.PASSWORD);
+		server.loadDataset(todoCount);
+		server.setLatency(java.time.Duration.ofMillis(options.getInt("latency", 100)));
+		server.start();
+		var service = Harness.startService(server.getRootEndPoint(), "HTTP_2", true);
+		var ids = service.getAll().stream().map(ToDo::getId).toList();
+		List<String> failures = new ArrayList<>();
+
+		long before = server.getRequestCount();
+		var expected = edit(ids, edits, interval, "Single", (id, title) -> service.updateTitleAsync(id, title));
+		long single = server.getRequestCount() - before;
+		check(service, expected, "single", failures);
+
+		var queue = Harness.fx(() -> new WriteBehindQueue(flushSize, Duration.millis(flushInterval),
+				(id, fieldName, oldValue) -> failures.add("rolled back " + id + " " + fieldName),
+				changes -> failures.add("offline " + changes.keySet())));
+		before = server.getRequestCount();
+		expected = edit(ids, edits, interval, "Queued", (id, title) -> queue.enqueue(id, "title", title, null));
+		long queued = server.getRequestCount() - before;
+		check(service, expected, "queued", failures);
+		if (queued >= single) {
+			failures.add(queued + " requests with the queue, " + single + " without");
+		}
+
+		// A change being sent is still pending, so that the echo of an older change does not overwrite it
+		int id = ids.get(0);
+		var sent = Harness.fx(() -> {
+			queue.enqueue(id, "title", "In flight", null);
+			return queue.flush();
+		});
+		if (!Harness.fx(() -> queue.isPending(id))) {
+			failures.add("not pending while in flight");
+		}
+		sent.join();
+		if (Harness.fx(() -> queue.isPending(id))) {
+			failures.add("pending after it has been sent");
+		}
+
+		System.out.printf("%d edits of %d ToDos: %d requests one by one, %d with WriteBehindQueue%n", edits,
+				todoCount, single, queued);
+		server.stop();
+		failures.forEach(failure -> System.out.println("FAILED: " + failure));
+		System.exit(failures.isEmpty() ? 0 : 1);
+	}
+
+	// Edits the titles in turn, one every interval ms on the JavaFX Application Thread.
+	// Returns the last title of each id after all sends have completed.
+	private static Map<Integer, String> edit(List<Integer> ids, int edits, int interval, String prefix,
+			BiFunction<Integer, String, CompletableFuture<Void>> update) {
+		Map<Integer, String> titles = new HashMap<>();
+		List<CompletableFuture<Void>> futures = new ArrayList<>();
+		var done = new CompletableFuture<Void>();
+		int[] count = { 0 };
+		Platform.runLater(() -> {
+			var timeline = new Timeline(new KeyFrame(Duration.millis(interval), e -> {
+				int id = ids.get(count[0] % ids.size());
+				var title = prefix + " " + count[0];
+				titles.put(id, title);
+				futures.add(update.apply(id, title));
+				if (++count[0] == edits) {
+					done.complete(null);
+				}
+			}));
+			timeline.setCycleCount(edits);
+			timeline.play();
+		});
+		done.join();
+		Harness.fx(() -> CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new))).join();
+		return Harness.fx(() -> titles);
+	}
+
+	private static void check(ToDoService service, Map<Integer, String> expected, String name, List<String> failures)
+			throws Exception {
+		for (var todo : service.getAll()) {
+			var title = expected.get(todo.getId());
+			if (title != null && !title.equals(todo.getTitle())) {
+				failures.add(name + ": " + todo.getId() + " is \"" + todo.getTitle() + "\", not \"" + title + "\"");
+			}
+		}
+	}
+}
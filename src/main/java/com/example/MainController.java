@@ -1,20 +1,33 @@
 package com.example;
 
+import java.text.MessageFormat;
 import java.time.LocalDate;
-import java.util.Comparator;
-import java.util.List;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletionException;
 
 import com.example.exceptions.ToDoServiceException;
+import com.example.model.BulkOperation;
 import com.example.model.I18n;
+import com.example.model.Settings;
 import com.example.model.ToDo;
+import com.example.model.ToDoDateIndex.DateRange;
 import com.example.model.ToDoManager;
 import com.example.model.ToDoService;
 
 import javafx.application.Platform;
-import javafx.beans.value.ChangeListener;
+import javafx.beans.binding.Bindings;
+import javafx.beans.property.BooleanProperty;
+import javafx.beans.property.SimpleBooleanProperty;
 import javafx.collections.FXCollections;
 import javafx.collections.ListChangeListener;
 import javafx.collections.ObservableList;
+import javafx.collections.ObservableSet;
+import javafx.collections.SetChangeListener;
+import javafx.css.PseudoClass;
 import javafx.fxml.FXML;
 import javafx.scene.Node;
 import javafx.scene.control.Alert;
@@ -25,15 +38,22 @@ import javafx.scene.control.CheckBox;
 import javafx.scene.control.ChoiceBox;
 import javafx.scene.control.DatePicker;
 import javafx.scene.control.Label;
+import javafx.scene.control.ListView;
 import javafx.scene.control.Menu;
 import javafx.scene.control.MenuItem;
+import javafx.scene.control.ProgressBar;
+import javafx.scene.control.ScrollPane;
 import javafx.scene.control.TextField;
+import javafx.scene.input.MouseEvent;
 import javafx.scene.layout.HBox;
 import javafx.scene.layout.Priority;
 import javafx.scene.layout.VBox;
+import javafx.util.StringConverter;
 
 public class MainController {
-	private final String TODO_ID_PREFIX = "todo-";
+	static final String TODO_ID_PREFIX = "todo-";
+	// State of a row whose ToDo is selected for a bulk operation
+	static final PseudoClass MARKED = PseudoClass.getPseudoClass("marked");
 
 	@FXML
 	private Menu fileMenu;
@@ -59,18 +79,102 @@ public class MainController {
 	@FXML
 	private Button addBtn;
 
+	@FXML
+	private Label offlineLabel;
+
 	@FXML
 	private DatePicker headerDatePicker;
 
 	@FXML
 	private TextField headerTitleField;
 
+	@FXML
+	private Label searchLabel;
+
+	@FXML
+	private TextField searchField;
+
+	@FXML
+	private CheckBox hideCompletedCheckBox;
+
+	// null is all priorities
+	@FXML
+	private ChoiceBox<Integer> priorityFilterChoiceBox;
+
+	@FXML
+	private ChoiceBox<DueView> dueViewChoiceBox;
+
+	// Bounds of DueView.CUSTOM
+	@FXML
+	private DatePicker dueFromPicker;
+
+	@FXML
+	private DatePicker dueToPicker;
+
+	private enum DueView {
+		ALL("main.due_all"), OVERDUE("main.due_overdue"), TODAY("main.due_today"),
+		THIS_WEEK("main.due_this_week"), CUSTOM("main.due_custom");
+
+		private final String messageKey;
+
+		DueView(String messageKey) {
+			this.messageKey = messageKey;
+		}
+	}
+
+	@FXML
+	private ScrollPane scrollPane;
+
 	@FXML
 	private VBox todoListVBox;
 
+	@FXML
+	private ListView<ToDo> todoListView;
+
+	// Keeps todoListVBox in the order of the visible ToDos, removed when the ListView takes over
+	private ListChangeListener<ToDo> vboxListener;
+	// Rows of todoListVBox by ToDo
+	// The key is the ToDo itself because a temporary id is replaced after an offline create.
+	private final Map<ToDo, Node> todoNodes = new HashMap<>();
+
 	@FXML
 	private ChoiceBox<Integer> headerPriorityChoiceBox;
 
+	@FXML
+	private HBox bulkBar;
+
+	@FXML
+	private Label selectedCountLabel;
+
+	@FXML
+	private Button selectAllBtn;
+
+	@FXML
+	private Button selectNoneBtn;
+
+	@FXML
+	private Button bulkCompleteBtn;
+
+	@FXML
+	private ChoiceBox<Integer> bulkPriorityChoiceBox;
+
+	@FXML
+	private DatePicker bulkDatePicker;
+
+	@FXML
+	private Button bulkDeleteBtn;
+
+	@FXML
+	private ProgressBar bulkProgressBar;
+
+	@FXML
+	private Label bulkStatusLabel;
+
+	// ToDos selected by Shortcut+click for a bulk operation
+	private final ObservableSet<ToDo> selectedTodos = FXCollections.observableSet();
+
+	private final BooleanProperty bulkRunning = new SimpleBooleanProperty(false);
+
 	private String getMessage(String key) {
 		return I18n.getInstance().getMessage(key);
 	}
@@ -83,14 +187,24 @@ public class MainController {
 		alert.showAndWait();
 	}
 
-	private void showError(Exception e) {
+	private Void showError(Throwable e) {
+		// Errors from the async API are wrapped in CompletionException
+		if (e instanceof CompletionException ce) {
+			e = ce.getCause();
+		}
 		if (e instanceof ToDoServiceException tdse) {
+			// offlineLabel already tells that the server is down
+			if (tdse.getType() == ToDoServiceException.Type.IO_ERROR && ToDoService.getInstance().isOffline()) {
+				return null;
+			}
 			String txt = switch (tdse.getType()) {
 				case ToDoServiceException.Type.IO_ERROR -> getMessage("main.io_error");
 				case ToDoServiceException.Type.INTERRUPTED_ERROR -> getMessage("main.interrupted_error");
 				case ToDoServiceException.Type.INTERNAL_SERVER_ERROR -> getMessage("main.internal_server_error");
 				case ToDoServiceException.Type.AUTHENTICATION_ERROR -> getMessage("main.authentication_error");
 				case ToDoServiceException.Type.AUTHORIZATION_ERROR -> getMessage("main.authorization_error");
+				case ToDoServiceException.Type.NOT_SUPPORTED_ERROR -> getMessage("main.not_supported_error");
+				case ToDoServiceException.Type.NOT_FOUND_ERROR -> getMessage("main.not_found_error");
 				default -> getMessage("main.unknown_error");
 			};
 
@@ -100,6 +214,7 @@ public class MainController {
 			dialog.setContentText(txt);
 			dialog.showAndWait();
 		}
+		return null;
 	}
 
 	private HBox createToDoHBox(ToDo todo) {
@@ -128,7 +243,8 @@ public class MainController {
 		var todoItem = new HBox(completedCheckBox, titleField, datePicker, priorityChoiceBox, deleteBtn);
 		todoItem.getStyleClass().add("todo-item");
 
-		todoItem.setId(TODO_ID_PREFIX + todo.getId());
+		todoItem.idProperty().bind(Bindings.concat(TODO_ID_PREFIX, todo.idProperty()));
+		todoItem.pseudoClassStateChanged(MARKED, selectedTodos.contains(todo));
 
 		// Bind Model to View
 		completedCheckBox.selectedProperty().bindBidirectional(todo.completedProperty());
@@ -136,17 +252,17 @@ public class MainController {
 		datePicker.valueProperty().bindBidirectional(todo.dateProperty());
 		priorityChoiceBox.valueProperty().bindBidirectional(todo.priorityProperty());
 
-		// Event Handler for sorting
-		ChangeListener<Object> listener = (observable, newValue, oldValue) -> sortByCompletedAndDate();
-		completedCheckBox.selectedProperty().addListener(listener);
-		datePicker.valueProperty().addListener(listener);
-
 		// Event Handler
-		deleteBtn.setOnAction(e -> {
-			try {
-				ToDoManager.getInstance().remove(todo);
-			} catch (Exception ex) {
-				showError(ex);
+		titleField.focusedProperty().addListener((observable, oldValue, newValue) -> {
+			if (!newValue) {
+				ToDoManager.getInstance().flushTitle(todo);
+			}
+		});
+		deleteBtn.setOnAction(e -> ToDoManager.getInstance().remove(todo).exceptionally(this::showError));
+		todoItem.addEventFilter(MouseEvent.MOUSE_PRESSED, e -> {
+			if (e.isShortcutDown()) {
+				toggle(selectedTodos, todo);
+				e.consume();
 			}
 		});
 
@@ -154,76 +270,302 @@ public class MainController {
 	}
 
 	public void initModel() {
-		ObservableList<Node> todoListItems = todoListVBox.getChildren();
+		if (Settings.getInstance().isVirtualizedList()
+				|| ToDoManager.getInstance().filteredTodos().size() > Settings.getInstance().getVirtualizedListThreshold()) {
+			initListView();
+		} else {
+			initVBox();
+		}
 
 		// Event Handler
+		// The new row appears at once, the title is given back if the server rejects it
 		addBtn.setOnAction(e -> {
-			try {
-				ToDoManager.getInstance().create(headerTitleField.getText(), headerDatePicker.getValue(),
-						headerPriorityChoiceBox.getValue(), false);
-				headerTitleField.clear();
-			} catch (Exception ex) {
-				showError(ex);
+			var title = headerTitleField.getText();
+			headerTitleField.clear();
+			ToDoManager.getInstance().create(title, headerDatePicker.getValue(),
+					headerPriorityChoiceBox.getValue(), false)
+					.exceptionally(ex -> {
+						if (headerTitleField.getText().isEmpty()) {
+							headerTitleField.setText(title);
+						}
+						return showError(ex);
+					});
+		});
+
+		menuItemClear.setOnAction(e -> {
+			Alert alert = new Alert(Alert.AlertType.CONFIRMATION);
+			alert.setTitle(getMessage("main.confirm"));
+			alert.setHeaderText("");
+			alert.setContentText(getMessage("main.clear_confirm"));
+			alert.getButtonTypes().setAll(ButtonType.YES, ButtonType.NO);
+			alert.showAndWait().ifPresent(response -> {
+				if (response == ButtonType.YES) {
+					ToDoManager.getInstance().clear().exceptionally(this::showError);
+				}
+			});
+		});
+
+		initBulkBar();
+
+		menuItemAbout.setOnAction(e -> showInfo(getMessage("main.app_name")));
+		menuItemClose.setOnAction(e -> Platform.exit());
+
+		// Query the search index on each keystroke
+		searchField.textProperty().addListener((observable, oldValue, newValue) -> applyFilter());
+		hideCompletedCheckBox.selectedProperty().addListener((observable, oldValue, newValue) -> applyFilter());
+		priorityFilterChoiceBox.valueProperty().addListener((observable, oldValue, newValue) -> applyFilter());
+		dueViewChoiceBox.valueProperty().addListener((observable, oldValue, newValue) -> {
+			dueFromPicker.setVisible(newValue == DueView.CUSTOM);
+			dueToPicker.setVisible(newValue == DueView.CUSTOM);
+			applyFilter();
+			refreshDueView();
+		});
+		dueFromPicker.valueProperty().addListener((observable, oldValue, newValue) -> {
+			applyFilter();
+			refreshDueView();
+		});
+		dueToPicker.valueProperty().addListener((observable, oldValue, newValue) -> {
+			applyFilter();
+			refreshDueView();
+		});
+		// Counts of the views are taken from the date index when the choices are shown
+		dueViewChoiceBox.setOnShowing(e -> dueViewChoiceBox.setConverter(dueViewConverter(true)));
+		dueViewChoiceBox.setOnHidden(e -> dueViewChoiceBox.setConverter(dueViewConverter(false)));
+
+		offlineLabel.visibleProperty().bind(ToDoService.getInstance().offlineProperty());
+		offlineLabel.managedProperty().bind(offlineLabel.visibleProperty());
+
+		// Render the local snapshot first, then reconcile it with the server in the background
+		ToDoManager.getInstance().loadSnapshot();
+		ToDoManager.getInstance().loadInitialData().exceptionally(this::showError);
+
+		menuItemAccountSettings.setOnAction(e -> {
+			if (ToDoService.getInstance().openAuthDialog(0)) {
+				ToDoManager.getInstance().loadInitialData().exceptionally(this::showError);
 			}
 		});
+	}
 
-		// Observe Model to update View
+	static void toggle(ObservableSet<ToDo> selection, ToDo todo) {
+		if (!selection.remove(todo)) {
+			selection.add(todo);
+		}
+	}
+
+	private void initBulkBar() {
+		// Deleted ToDos leave the selection
 		ToDoManager.getInstance().todosProperty().addListener((ListChangeListener<ToDo>) change -> {
 			while (change.next()) {
-				if (change.wasAdded()) {
-					change.getAddedSubList().forEach(todo -> todoListItems.add(createToDoHBox(todo)));
-				}
-				if (change.wasRemoved()) {
-					List<String> ids = change.getRemoved().stream().map(todo -> TODO_ID_PREFIX + todo.getId()).toList();
-					todoListItems.removeIf(node -> ids.contains(node.getId()));
+				if (change.wasRemoved() && !selectedTodos.isEmpty()) {
+					selectedTodos.removeAll(change.getRemoved());
 				}
 			}
-			sortByCompletedAndDate();
 		});
 
-		menuItemClear.setOnAction(e -> {
+		bulkBar.visibleProperty().bind(Bindings.isNotEmpty(selectedTodos).or(bulkRunning));
+		bulkBar.managedProperty().bind(bulkBar.visibleProperty());
+		selectedCountLabel.textProperty().bind(Bindings.createStringBinding(
+				() -> MessageFormat.format(getMessage("main.selected"), selectedTodos.size()), selectedTodos));
+		bulkProgressBar.visibleProperty().bind(bulkRunning);
+		bulkProgressBar.managedProperty().bind(bulkRunning);
+		for (var control : new Node[] { selectAllBtn, selectNoneBtn, bulkCompleteBtn, bulkPriorityChoiceBox,
+				bulkDatePicker, bulkDeleteBtn }) {
+			control.disableProperty().bind(bulkRunning);
+		}
+
+		// Event Handler
+		selectAllBtn.setOnAction(e -> selectedTodos.addAll(ToDoManager.getInstance().filteredTodos()));
+		selectNoneBtn.setOnAction(e -> selectedTodos.clear());
+		bulkCompleteBtn.setOnAction(
+				e -> runBulk(ToDoManager.getInstance().updateAll(selectedTodos, ToDo.COMPLETED, true)));
+		// The choice box and the date picker are reset after each use, which fires their action again with null
+		bulkPriorityChoiceBox.setOnAction(e -> {
+			var priority = bulkPriorityChoiceBox.getValue();
+			if (priority != null) {
+				bulkPriorityChoiceBox.setValue(null);
+				runBulk(ToDoManager.getInstance().updateAll(selectedTodos, ToDo.PRIORITY, priority));
+			}
+		});
+		bulkDatePicker.setOnAction(e -> {
+			var date = bulkDatePicker.getValue();
+			if (date != null) {
+				bulkDatePicker.setValue(null);
+				runBulk(ToDoManager.getInstance().updateAll(selectedTodos, ToDo.DATE, date));
+			}
+		});
+		bulkDeleteBtn.setOnAction(e -> {
 			Alert alert = new Alert(Alert.AlertType.CONFIRMATION);
 			alert.setTitle(getMessage("main.confirm"));
 			alert.setHeaderText("");
-			alert.setContentText(getMessage("main.clear_confirm"));
+			alert.setContentText(MessageFormat.format(getMessage("main.bulk_delete_confirm"), selectedTodos.size()));
 			alert.getButtonTypes().setAll(ButtonType.YES, ButtonType.NO);
 			alert.showAndWait().ifPresent(response -> {
 				if (response == ButtonType.YES) {
-					try {
-						ToDoManager.getInstance().clear();
-					} catch (Exception ex) {
-						showError(ex);
-					}
+					runBulk(ToDoManager.getInstance().removeAll(selectedTodos));
 				}
 			});
 		});
+	}
 
-		menuItemAbout.setOnAction(e -> showInfo(getMessage("main.app_name")));
-		menuItemClose.setOnAction(e -> Platform.exit());
+	// Shows the progress of operation and its failures when it has finished
+	private void runBulk(BulkOperation<ToDo> operation) {
+		bulkRunning.set(true);
+		bulkProgressBar.progressProperty().bind(operation.progressProperty());
+		bulkStatusLabel.textProperty().bind(Bindings.createStringBinding(
+				() -> MessageFormat.format(getMessage("main.bulk_progress"), operation.doneProperty().get(),
+						operation.getTotal()),
+				operation.doneProperty()));
+		operation.result().thenAccept(finished -> {
+			bulkRunning.set(false);
+			bulkProgressBar.progressProperty().unbind();
+			bulkStatusLabel.textProperty().unbind();
+			var failures = finished.getFailures();
+			if (failures.isEmpty()) {
+				bulkStatusLabel.setText("");
+				selectedTodos.clear();
+				return;
+			}
+			bulkStatusLabel.setText(
+					MessageFormat.format(getMessage("main.bulk_failed"), failures.size(), finished.getTotal()));
+			// Failed ToDos stay selected, so that the operation can be retried
+			selectedTodos.retainAll(failures.keySet());
+			showError(failures.values().iterator().next());
+		});
+	}
 
-		try {
-			ToDoManager.getInstance().loadInitialData();
-		} catch (Exception e) {
-			showError(e);
+	private DateRange dueRange(DueView view) {
+		var today = LocalDate.now();
+		return switch (view) {
+			case OVERDUE -> DateRange.overdue(today);
+			case TODAY -> DateRange.day(today);
+			case THIS_WEEK -> DateRange.week(today);
+			case CUSTOM -> new DateRange(dueFromPicker.getValue(), dueToPicker.getValue());
+			default -> DateRange.ALL;
+		};
+	}
+
+	private StringConverter<DueView> dueViewConverter(boolean withCounts) {
+		return new StringConverter<DueView>() {
+			@Override
+			public String toString(DueView view) {
+				if (view == null) {
+					return "";
+				}
+				var text = getMessage(view.messageKey);
+				if (!withCounts || view == DueView.ALL || view == DueView.CUSTOM) {
+					return text;
+				}
+				return text + " (" + ToDoManager.getInstance().count(dueRange(view)) + ")";
+			}
+
+			@Override
+			public DueView fromString(String string) {
+				return null;
+			}
+		};
+	}
+
+	private void applyFilter() {
+		var view = dueViewChoiceBox.getValue();
+		// Completed ToDos are not overdue
+		ToDoManager.getInstance().setFilter(searchField.getText(),
+				hideCompletedCheckBox.isSelected() || view == DueView.OVERDUE,
+				priorityFilterChoiceBox.getValue(), dueRange(view));
+	}
+
+	// Downloads only the slice of the selected view
+	private void refreshDueView() {
+		var range = dueRange(dueViewChoiceBox.getValue());
+		if (!range.isAll()) {
+			ToDoManager.getInstance().refreshRange(range).exceptionally(this::showError);
 		}
+	}
 
-		menuItemAccountSettings.setOnAction(e -> {
-			if (ToDoService.getInstance().openAuthDialog(0)) {
-				try {
-					ToDoManager.getInstance().loadInitialData();
-				} catch (ToDoServiceException ex) {
-					showError(ex);
+	private Node createToDoNode(ToDo todo) {
+		var node = createToDoHBox(todo);
+		todoNodes.put(todo, node);
+		return node;
+	}
+
+	/**
+	 * Shows the rows in todoListVBox until more than Settings.virtualizedListThreshold ToDos are visible,
+	 * then switches to todoListView for good. Each row of the VBox keeps its controls,
+	 * which makes edits and scrolling cheap, but each row costs about 0.5 MB of heap and its first layout.
+	 */
+	private void initVBox() {
+		ObservableList<Node> todoListItems = todoListVBox.getChildren();
+		ObservableList<ToDo> visibleTodos = ToDoManager.getInstance().filteredTodos();
+		int threshold = Settings.getInstance().getVirtualizedListThreshold();
+
+		// Observe Model to update View
+		// The children of todoListVBox follow the order of visibleTodos, sorted and filtered.
+		vboxListener = change -> {
+			// Before any row is built, e.g. for a large snapshot
+			if (visibleTodos.size() > threshold) {
+				visibleTodos.removeListener(vboxListener);
+				todoListItems.clear();
+				todoNodes.clear();
+				initListView();
+				return;
+			}
+			while (change.next()) {
+				if (change.wasPermutated()) {
+					// setAll() with the same nodes moves them without removing them from the scene.
+					// The range is rebuilt from the list, because the permutations of FilteredList
+					// do not always match its new order.
+					var nodes = new ArrayList<>(todoListItems);
+					for (int i = change.getFrom(); i < change.getTo(); i++) {
+						nodes.set(i, todoNodes.get(visibleTodos.get(i)));
+					}
+					todoListItems.setAll(nodes);
 				}
 			}
-		});
 
-		sortByCompletedAndDate();
+			// Remove all rows at once, so that bulk removals take linear time.
+			// Additions are applied afterwards, because removals never shift the index of a later addition.
+			Set<Node> removedNodes = new HashSet<>();
+			change.reset();
+			while (change.next()) {
+				change.getRemoved().forEach(todo -> {
+					var node = todoNodes.remove(todo);
+					if (node != null) {
+						removedNodes.add(node);
+					}
+				});
+			}
+			if (!removedNodes.isEmpty()) {
+				todoListItems.removeAll(removedNodes);
+			}
+
+			change.reset();
+			while (change.next()) {
+				if (change.wasAdded()) {
+					todoListItems.addAll(change.getFrom(),
+							change.getAddedSubList().stream().map(todo -> createToDoNode(todo)).toList());
+				}
+			}
+		};
+		visibleTodos.addListener(vboxListener);
+
+		visibleTodos.forEach(todo -> todoListItems.add(createToDoNode(todo)));
+
+		selectedTodos.addListener((SetChangeListener<ToDo>) change -> {
+			var todo = change.wasAdded() ? change.getElementAdded() : change.getElementRemoved();
+			var node = todoNodes.get(todo);
+			if (node != null) {
+				node.pseudoClassStateChanged(MARKED, change.wasAdded());
+			}
+		});
 	}
 
-	private void sortByCompletedAndDate() {
-		FXCollections.sort(todoListVBox.getChildren(),
-				Comparator.comparing(node -> ((CheckBox) ((HBox) node).getChildren().get(0)).isSelected())
-						.thenComparing(node -> ((DatePicker) ((HBox) node).getChildren().get(2)).getValue()));
+	private void initListView() {
+		scrollPane.setVisible(false);
+		scrollPane.setManaged(false);
+		todoListView.setVisible(true);
+		todoListView.setManaged(true);
+
+		todoListView.setCellFactory(listView -> new ToDoListCell(this::showError, selectedTodos));
+		todoListView.setItems(ToDoManager.getInstance().filteredTodos());
 	}
 
 	public void initialize() {
@@ -233,6 +575,26 @@ public class MainController {
 		headerPriorityChoiceBox.getItems().addAll(1, 2, 3, 4, 5);
 		headerPriorityChoiceBox.setValue(3);
 
+		priorityFilterChoiceBox.getItems().addAll(null, 1, 2, 3, 4, 5);
+		priorityFilterChoiceBox.setConverter(new StringConverter<Integer>() {
+			@Override
+			public String toString(Integer priority) {
+				return priority == null ? getMessage("main.all_priorities") : priority.toString();
+			}
+
+			@Override
+			public Integer fromString(String string) {
+				return null;
+			}
+		});
+		priorityFilterChoiceBox.setValue(null);
+
+		dueViewChoiceBox.getItems().addAll(DueView.values());
+		dueViewChoiceBox.setConverter(dueViewConverter(false));
+		dueViewChoiceBox.setValue(DueView.ALL);
+		dueFromPicker.managedProperty().bind(dueFromPicker.visibleProperty());
+		dueToPicker.managedProperty().bind(dueToPicker.visibleProperty());
+
 		fileMenu.setText(getMessage("main.file_menu"));
 		helpMenu.setText(getMessage("main.help_menu"));
 
@@ -242,5 +604,15 @@ public class MainController {
 		menuItemAccountSettings.setText(getMessage("main.account_settings_menu"));
 		menuItemClear.setText(getMessage("main.clear_menu"));
 		menuItemClose.setText(getMessage("main.close_menu"));
+		offlineLabel.setText(getMessage("main.offline"));
+		searchLabel.setText(getMessage("main.search"));
+		searchField.setPromptText(getMessage("main.search"));
+		hideCompletedCheckBox.setText(getMessage("main.hide_completed"));
+
+		bulkPriorityChoiceBox.getItems().addAll(1, 2, 3, 4, 5);
+		selectAllBtn.setText(getMessage("main.select_all"));
+		selectNoneBtn.setText(getMessage("main.select_none"));
+		bulkCompleteBtn.setText(getMessage("main.complete_button"));
+		bulkDeleteBtn.setText(getMessage("main.delete_button"));
 	}
 }
\ No newline at end of file
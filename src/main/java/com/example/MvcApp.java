@@ -1,8 +1,12 @@
 package com.example;
 
 import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
 
 import com.example.model.I18n;
+import com.example.model.Settings;
+import com.example.model.ToDoManager;
+import com.example.model.ToDoService;
 
 import javafx.application.Application;
 import javafx.fxml.FXMLLoader;
@@ -11,33 +15,84 @@ import javafx.scene.Scene;
 import javafx.stage.Stage;
 
 public class MvcApp extends Application {
+	// Settings, messages and ToDoService are created while the JavaFX toolkit starts.
+	// Their singletons are not thread safe, so they are used only after these futures complete.
+	private static CompletableFuture<Void> messagesReady;
+	private static CompletableFuture<Void> serviceReady;
+
+	private Parent root;
+	private MainController mainController;
+
+	@Override
+	public void init() throws IOException {
+		StartupTimer.mark("toolkit");
+		messagesReady.join();
+
+		// Controls may be created on the launcher thread, only Scene and Stage need the JavaFX Application Thread
+		// Create Loader for .fxml
+		var mainViewLoader = new FXMLLoader(getClass().getResource("main.fxml"));
+
+		// Get View
+		root = mainViewLoader.load();
+
+		// Get Controller
+		mainController = mainViewLoader.getController();
+		StartupTimer.mark("main.fxml");
+	}
+
 	@Override
 	public void start(Stage stage) {
-		try {
-			// Create Loader for .fxml
-			var mainViewLoader = new FXMLLoader(getClass().getResource("main.fxml"));
-
-			// Get View
-			Parent root = mainViewLoader.load();
-
-			// Get Controller
-			MainController mainController = mainViewLoader.getController();
-
-			// Create and set Model to Controller
-			mainController.initModel();
-
-			// Build scene and stage to show View on the screen
-			var scene = new Scene(root);
-			stage.setTitle(I18n.getInstance().getMessage("main.app_name"));
-			stage.setScene(scene);
-			stage.show();
-		} catch (IOException e) {
-			e.printStackTrace();
-		}
+		serviceReady.join();
+
+		// Create and set Model to Controller
+		mainController.initModel();
+
+		// Build scene and stage to show View on the screen
+		var scene = new Scene(root);
+		// Reported at the first frame, and again at the first frame with rows if that comes later
+		scene.addPostLayoutPulseListener(new Runnable() {
+			private boolean firstFrame = true;
+
+			@Override
+			public void run() {
+				if (firstFrame) {
+					StartupTimer.mark("first frame");
+				}
+				boolean hasRows = !ToDoManager.getInstance().todosProperty().isEmpty();
+				if (hasRows) {
+					scene.removePostLayoutPulseListener(this);
+					StartupTimer.mark("first rows");
+				}
+				if (firstFrame || hasRows) {
+					StartupTimer.report();
+				}
+				firstFrame = false;
+			}
+		});
+		stage.setTitle(I18n.getInstance().getMessage("main.app_name"));
+		stage.setScene(scene);
+		stage.show();
+	}
+
+	@Override
+	public void stop() {
+		// Keep the latest list for the next startup
+		ToDoManager.getInstance().saveSnapshot().join();
+		Settings.getInstance().flush();
 	}
 
 	public static void main(String[] args) {
+		StartupTimer.mark("main");
+		messagesReady = CompletableFuture.runAsync(() -> {
+			// Loads settings.json first
+			I18n.getInstance();
+			StartupTimer.mark("settings and messages");
+		});
+		serviceReady = messagesReady.thenRun(() -> {
+			ToDoService.getInstance();
+			StartupTimer.mark("service");
+		});
 		launch();
 	}
 
-}
\ No newline at end of file
+}
@@ -0,0 +1,34 @@
+package com.example;
+
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Logger;
+import java.util.stream.Collectors;
+
+/**
+ * Milliseconds from the start of the JVM process to each startup phase, logged at the first frame
+ * and again when the first rows are shown, e.g. of the snapshot or of the first chunk from the server.
+ * Phases may be marked from any thread.
+ */
+final class StartupTimer {
+	private static final Logger logger = Logger.getLogger(StartupTimer.class.getName());
+	// Falls back to the class initialization, which happens at the start of main
+	private static final long startMillis = ProcessHandle.current().info().startInstant()
+			.orElseGet(Instant::now).toEpochMilli();
+	private static final Map<String, Long> phases = new ConcurrentHashMap<>();
+
+	private StartupTimer() {
+	}
+
+	static void mark(String phase) {
+		phases.put(phase, System.currentTimeMillis() - startMillis);
+	}
+
+	static void report() {
+		logger.info("Startup (ms since JVM start): " + phases.entrySet().stream()
+				.sorted(Map.Entry.comparingByValue())
+				.map(phase -> phase.getKey() + " " + phase.getValue())
+				.collect(Collectors.joining(", ")));
+	}
+}
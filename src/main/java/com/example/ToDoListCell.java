@@ -0,0 +1,129 @@
+package com.example;
+
+import java.util.function.Function;
+
+import com.example.model.I18n;
+import com.example.model.ToDo;
+import com.example.model.ToDoManager;
+
+import javafx.beans.binding.Bindings;
+import javafx.collections.ObservableSet;
+import javafx.collections.SetChangeListener;
+import javafx.collections.WeakSetChangeListener;
+import javafx.scene.input.MouseEvent;
+import javafx.scene.control.Button;
+import javafx.scene.control.CheckBox;
+import javafx.scene.control.ChoiceBox;
+import javafx.scene.control.ContentDisplay;
+import javafx.scene.control.DatePicker;
+import javafx.scene.control.ListCell;
+import javafx.scene.control.TextField;
+import javafx.scene.layout.HBox;
+import javafx.scene.layout.Priority;
+
+/**
+ * A reusable row of the virtualized todo list.
+ * The controls are created once per cell and rebound whenever the cell shows another ToDo.
+ */
+public final class ToDoListCell extends ListCell<ToDo> {
+	private final CheckBox completedCheckBox = new CheckBox();
+	private final TextField titleField = new TextField();
+	private final DatePicker datePicker = new DatePicker();
+	private final ChoiceBox<Integer> priorityChoiceBox = new ChoiceBox<>();
+	private final Button deleteBtn = new Button(I18n.getInstance().getMessage("main.delete_button"));
+	private final HBox todoItem = new HBox(completedCheckBox, titleField, datePicker, priorityChoiceBox, deleteBtn);
+	private ToDo boundToDo;
+	private final ObservableSet<ToDo> selectedTodos;
+	// Kept in a field, because selectedTodos refers to it only weakly
+	private final SetChangeListener<ToDo> selectionListener = change -> {
+		var todo = change.wasAdded() ? change.getElementAdded() : change.getElementRemoved();
+		if (todo == boundToDo) {
+			pseudoClassStateChanged(MainController.MARKED, change.wasAdded());
+		}
+	};
+
+	/**
+	 * selectedTodos are the ToDos marked for a bulk operation. Shortcut+click on a row toggles its ToDo.
+	 */
+	public ToDoListCell(Function<Throwable, Void> onError, ObservableSet<ToDo> selectedTodos) {
+		this.selectedTodos = selectedTodos;
+		selectedTodos.addListener(new WeakSetChangeListener<>(selectionListener));
+
+		completedCheckBox.getStyleClass().add("todo-completed");
+
+		titleField.getStyleClass().add("todo-title");
+		HBox.setHgrow(titleField, Priority.ALWAYS);
+
+		datePicker.getStyleClass().add("todo-date");
+		datePicker.setPrefWidth(105);
+		HBox.setHgrow(datePicker, Priority.NEVER);
+
+		priorityChoiceBox.getItems().addAll(1, 2, 3, 4, 5);
+		HBox.setHgrow(priorityChoiceBox, Priority.NEVER);
+
+		deleteBtn.getStyleClass().add("todo-delete");
+
+		todoItem.getStyleClass().add("todo-item");
+
+		getStyleClass().add("todo-list-cell");
+		setContentDisplay(ContentDisplay.GRAPHIC_ONLY);
+
+		// Event Handler
+		titleField.focusedProperty().addListener((observable, oldValue, newValue) -> {
+			if (!newValue && boundToDo != null) {
+				ToDoManager.getInstance().flushTitle(boundToDo);
+			}
+		});
+		deleteBtn.setOnAction(e -> {
+			if (boundToDo != null) {
+				ToDoManager.getInstance().remove(boundToDo).exceptionally(onError);
+			}
+		});
+		todoItem.addEventFilter(MouseEvent.MOUSE_PRESSED, e -> {
+			if (e.isShortcutDown() && boundToDo != null) {
+				MainController.toggle(selectedTodos, boundToDo);
+				e.consume();
+			}
+		});
+	}
+
+	@Override
+	protected void updateItem(ToDo todo, boolean empty) {
+		super.updateItem(todo, empty);
+
+		if (boundToDo != null && boundToDo != todo) {
+			unbind(boundToDo);
+			boundToDo = null;
+		}
+
+		if (empty || todo == null) {
+			pseudoClassStateChanged(MainController.MARKED, false);
+			setGraphic(null);
+			return;
+		}
+
+		if (boundToDo == null) {
+			bind(todo);
+			boundToDo = todo;
+		}
+		pseudoClassStateChanged(MainController.MARKED, selectedTodos.contains(todo));
+		setGraphic(todoItem);
+	}
+
+	private void bind(ToDo todo) {
+		idProperty().bind(Bindings.concat(MainController.TODO_ID_PREFIX, todo.idProperty()));
+		completedCheckBox.selectedProperty().bindBidirectional(todo.completedProperty());
+		titleField.textProperty().bindBidirectional(todo.titleProperty());
+		datePicker.valueProperty().bindBidirectional(todo.dateProperty());
+		priorityChoiceBox.valueProperty().bindBidirectional(todo.priorityProperty());
+	}
+
+	private void unbind(ToDo todo) {
+		idProperty().unbind();
+		setId(null);
+		completedCheckBox.selectedProperty().unbindBidirectional(todo.completedProperty());
+		titleField.textProperty().unbindBidirectional(todo.titleProperty());
+		datePicker.valueProperty().unbindBidirectional(todo.dateProperty());
+		priorityChoiceBox.valueProperty().unbindBidirectional(todo.priorityProperty());
+	}
+}
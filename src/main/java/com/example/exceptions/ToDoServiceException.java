@@ -6,7 +6,9 @@ public class ToDoServiceException extends Exception {
 		AUTHORIZATION_ERROR("authorization_error"),
 		INTERNAL_SERVER_ERROR("internal_server_error"),
 		IO_ERROR("io_error"),
-		INTERRUPTED_ERROR("interrupted_error");
+		INTERRUPTED_ERROR("interrupted_error"),
+		NOT_SUPPORTED_ERROR("not_supported_error"),
+		NOT_FOUND_ERROR("not_found_error");
 		
 		private final String message;
 
@@ -0,0 +1,132 @@
+package com.example.model;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+import javafx.beans.property.ReadOnlyDoubleProperty;
+import javafx.beans.property.ReadOnlyDoubleWrapper;
+import javafx.beans.property.ReadOnlyIntegerProperty;
+import javafx.beans.property.ReadOnlyIntegerWrapper;
+
+/**
+ * Sends one asynchronous request per item with at most maxInFlight requests at a time,
+ * and aggregates progress and failures.
+ * Requests are started and their results are collected on the JavaFX Application Thread,
+ * so the request function must return futures that complete there, like those of ToDoService.
+ */
+public final class BulkOperation<T> {
+	private final int total;
+	private final int maxInFlight;
+	private final Iterator<T> pending;
+	private final Function<T, CompletableFuture<?>> request;
+	private final Consumer<BulkOperation<T>> finisher;
+	private final ReadOnlyIntegerWrapper done = new ReadOnlyIntegerWrapper(this, "done");
+	private final ReadOnlyIntegerWrapper failed = new ReadOnlyIntegerWrapper(this, "failed");
+	private final ReadOnlyDoubleWrapper progress = new ReadOnlyDoubleWrapper(this, "progress");
+	private final List<T> succeeded = new ArrayList<>();
+	// Cause of each failed item, unwrapped from CompletionException
+	private final Map<T, Throwable> failures = new LinkedHashMap<>();
+	private final CompletableFuture<BulkOperation<T>> result = new CompletableFuture<>();
+	private int inFlight = 0;
+	// A request that completes at once finishes inside pump(), which must not start it again
+	private boolean pumping = false;
+
+	/**
+	 * finisher is called with this operation when all items have finished, before result() completes,
+	 * e.g. to apply the outcome to the model.
+	 */
+	public BulkOperation(Collection<T> items, int maxInFlight, Function<T, CompletableFuture<?>> request,
+			Consumer<BulkOperation<T>> finisher) {
+		this.total = items.size();
+		this.maxInFlight = Math.max(1, maxInFlight);
+		this.pending = List.copyOf(items).iterator();
+		this.request = request;
+		this.finisher = finisher;
+	}
+
+	public BulkOperation<T> start() {
+		pump();
+		return this;
+	}
+
+	private void pump() {
+		if (pumping) {
+			return;
+		}
+		pumping = true;
+		try {
+			while (inFlight < maxInFlight && pending.hasNext()) {
+				var item = pending.next();
+				inFlight++;
+				CompletableFuture<?> future;
+				try {
+					future = request.apply(item);
+				} catch (RuntimeException e) {
+					future = CompletableFuture.failedFuture(e);
+				}
+				future.whenComplete((value, e) -> finished(item, e));
+			}
+		} finally {
+			pumping = false;
+		}
+		if (done.get() == total && !result.isDone()) {
+			try {
+				finisher.accept(this);
+			} finally {
+				result.complete(this);
+			}
+		}
+	}
+
+	private void finished(T item, Throwable e) {
+		inFlight--;
+		if (e == null) {
+			succeeded.add(item);
+		} else {
+			failures.put(item, e instanceof CompletionException ? e.getCause() : e);
+			failed.set(failed.get() + 1);
+		}
+		done.set(done.get() + 1);
+		progress.set((double) done.get() / total);
+		pump();
+	}
+
+	public int getTotal() {
+		return total;
+	}
+
+	// Number of finished items, successful or not
+	public ReadOnlyIntegerProperty doneProperty() {
+		return done.getReadOnlyProperty();
+	}
+
+	public ReadOnlyIntegerProperty failedProperty() {
+		return failed.getReadOnlyProperty();
+	}
+
+	// From 0 to 1
+	public ReadOnlyDoubleProperty progressProperty() {
+		return progress.getReadOnlyProperty();
+	}
+
+	public List<T> getSucceeded() {
+		return succeeded;
+	}
+
+	public Map<T, Throwable> getFailures() {
+		return failures;
+	}
+
+	// Completes on the JavaFX Application Thread when all items have finished. It never fails.
+	public CompletableFuture<BulkOperation<T>> result() {
+		return result;
+	}
+}
@@ -0,0 +1,143 @@
+package com.example.model;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Consumer;
+import java.util.logging.Logger;
+
+import com.example.exceptions.ToDoServiceException;
+
+import javafx.animation.PauseTransition;
+import javafx.util.Duration;
+
+/**
+ * Subscription to the change feed of the server, a Server-Sent Events stream of /todos/changes.
+ * After a lost connection it reconnects with the id of the last received event, so no change is missed,
+ * waiting longer after each failed attempt. A connection on which nothing, not even a keep-alive comment,
+ * has arrived for IDLE_TIMEOUT is considered lost.
+ * It stops when the server has no feed, does not support it or rejects the account.
+ * All methods must be called on the JavaFX Application Thread.
+ */
+public class ChangeFeed {
+	private static final Duration IDLE_TIMEOUT = Duration.seconds(45);
+	private static final Duration MIN_RETRY_DELAY = Duration.seconds(1);
+	private static final Duration MAX_RETRY_DELAY = Duration.seconds(60);
+
+	private final Logger logger = Logger.getLogger(ChangeFeed.class.getName());
+	private final Consumer<List<Event>> handler;
+	private final PauseTransition idleTimer = new PauseTransition(IDLE_TIMEOUT);
+	private final PauseTransition retryTimer = new PauseTransition();
+	private CompletableFuture<Void> subscription;
+	// Identifies the current subscription. Events of an earlier one are dropped, they are sent again.
+	private Object connection;
+	private String lastEventId;
+	private Duration retryDelay = MIN_RETRY_DELAY;
+
+	public enum Type {
+		UPSERT, DELETE,
+		// The server no longer has the events after lastEventId, the list must be reloaded
+		RESET,
+		KEEP_ALIVE
+	}
+
+	// todo is the new state for UPSERT, and has only the id for DELETE
+	public record Event(Type type, String id, ToDo todo) {}
+
+	/**
+	 * handler receives the events in order, except keep-alives, several at a time when they arrive together.
+	 */
+	public ChangeFeed(Consumer<List<Event>> handler) {
+		this.handler = handler;
+		idleTimer.setOnFinished(e -> {
+			logger.warning("No event for " + IDLE_TIMEOUT.toSeconds() + " s. Reconnect.");
+			disconnect();
+			connect();
+		});
+		retryTimer.setOnFinished(e -> connect());
+	}
+
+	/**
+	 * Subscribes to the changes from now on, replacing a running subscription.
+	 * Call it before the list is loaded, so that no change between the two is missed.
+	 */
+	public void start() {
+		stop();
+		lastEventId = null;
+		retryDelay = MIN_RETRY_DELAY;
+		connect();
+	}
+
+	public void stop() {
+		retryTimer.stop();
+		disconnect();
+	}
+
+	public boolean isRunning() {
+		return connection != null || retryTimer.getStatus() == PauseTransition.Status.RUNNING;
+	}
+
+	private void connect() {
+		var current = new Object();
+		connection = current;
+		idleTimer.playFromStart();
+		subscription = ToDoService.getInstance().subscribeChangesAsync(lastEventId, events -> {
+			if (connection == current) {
+				receive(events);
+			}
+		});
+		subscription.whenComplete((v, e) -> {
+			if (connection == current) {
+				disconnect();
+				closed(e);
+			}
+		});
+	}
+
+	private void disconnect() {
+		idleTimer.stop();
+		connection = null;
+		if (subscription != null) {
+			// Closes the stream
+			subscription.cancel(false);
+			subscription = null;
+		}
+	}
+
+	private void receive(List<Event> events) {
+		idleTimer.playFromStart();
+		retryDelay = MIN_RETRY_DELAY;
+		var changes = events.stream().filter(event -> event.type() != Type.KEEP_ALIVE).toList();
+		for (var event : events) {
+			if (event.id() != null) {
+				lastEventId = event.id();
+			}
+		}
+		if (!changes.isEmpty()) {
+			handler.accept(changes);
+		}
+	}
+
+	private void closed(Throwable e) {
+		var cause = e instanceof CompletionException ? e.getCause() : e;
+		if (cause instanceof ToDoServiceException tdse && switch (tdse.getType()) {
+			case AUTHENTICATION_ERROR, AUTHORIZATION_ERROR -> true;
+			default -> false;
+		}) {
+			logger.warning("Change feed stopped: " + tdse.getType());
+			return;
+		}
+		if (cause instanceof ToDoServiceException tdse && switch (tdse.getType()) {
+			case NOT_FOUND_ERROR, NOT_SUPPORTED_ERROR -> true;
+			default -> false;
+		}) {
+			logger.info("Change feed unavailable on the server, not reconnecting");
+			return;
+		}
+		logger.info("Change feed closed" + (cause == null ? "" : ": " + cause.getMessage())
+				+ ". Reconnect in " + retryDelay.toSeconds() + " s.");
+		retryTimer.setDuration(retryDelay);
+		retryTimer.playFromStart();
+		retryDelay = Duration.millis(Math.min(retryDelay.toMillis() * 2, MAX_RETRY_DELAY.toMillis()));
+	}
+}
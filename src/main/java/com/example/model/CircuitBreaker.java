@@ -0,0 +1,82 @@
+package com.example.model;
+
+import java.time.Duration;
+import java.util.function.Consumer;
+
+/**
+ * Fails requests fast while an endpoint is down.
+ * The breaker opens after a number of consecutive failures. After openDuration one trial request
+ * is let through (half-open); its result closes the breaker or opens it again.
+ * Methods may be called from any thread.
+ */
+public class CircuitBreaker {
+	public enum State {
+		CLOSED, OPEN, HALF_OPEN
+	}
+
+	private final int failureThreshold;
+	private final Duration openDuration;
+	private final Consumer<State> onStateChange;
+	private State state = State.CLOSED;
+	private int consecutiveFailures = 0;
+	private long openedAt;
+	private boolean trialInFlight = false;
+
+	public CircuitBreaker(int failureThreshold, Duration openDuration, Consumer<State> onStateChange) {
+		this.failureThreshold = failureThreshold;
+		this.openDuration = openDuration;
+		this.onStateChange = onStateChange;
+	}
+
+	public synchronized State getState() {
+		return state;
+	}
+
+	// Returns false if the request must fail without being sent
+	public synchronized boolean allowRequest() {
+		switch (state) {
+			case CLOSED:
+				return true;
+			case OPEN:
+				if (System.nanoTime() - openedAt < openDuration.toNanos()) {
+					return false;
+				}
+				setState(State.HALF_OPEN);
+				trialInFlight = true;
+				return true;
+			default:
+				if (trialInFlight) {
+					return false;
+				}
+				trialInFlight = true;
+				return true;
+		}
+	}
+
+	public synchronized void recordSuccess() {
+		consecutiveFailures = 0;
+		trialInFlight = false;
+		setState(State.CLOSED);
+	}
+
+	public synchronized void recordFailure() {
+		consecutiveFailures++;
+		trialInFlight = false;
+		if (state == State.HALF_OPEN || consecutiveFailures >= failureThreshold) {
+			openedAt = System.nanoTime();
+			setState(State.OPEN);
+		}
+	}
+
+	// Ends a request whose outcome says nothing about the endpoint, e.g. an interrupted one
+	public synchronized void release() {
+		trialInFlight = false;
+	}
+
+	private void setState(State newState) {
+		if (state != newState) {
+			state = newState;
+			onStateChange.accept(newState);
+		}
+	}
+}
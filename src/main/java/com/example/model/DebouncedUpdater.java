@@ -0,0 +1,108 @@
+package com.example.model;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+
+import javafx.animation.Animation;
+import javafx.animation.PauseTransition;
+import javafx.util.Duration;
+
+/**
+ * Coalesces rapid changes of one field per ToDo into a single update.
+ * Only the latest value is sent after a quiet period or on an explicit flush.
+ * Values that are superseded while a request is in flight are dropped.
+ * All methods must be called on the JavaFX Application Thread.
+ */
+public final class DebouncedUpdater<T> {
+	private final Duration quietPeriod;
+	private final Sender<T> sender;
+	private final Consumer<Throwable> onError;
+	private final Map<Integer, Entry> entries = new HashMap<>();
+
+	@FunctionalInterface
+	public interface Sender<T> {
+		// oldValue is the value before the first of the coalesced changes
+		CompletableFuture<Void> send(int id, T value, T oldValue);
+	}
+
+	private class Entry {
+		private final PauseTransition timer = new PauseTransition(quietPeriod);
+		private T pendingValue;
+		private T oldValue;
+		private boolean hasPending;
+		private boolean inFlight;
+	}
+
+	public DebouncedUpdater(Duration quietPeriod, Sender<T> sender,
+			Consumer<Throwable> onError) {
+		this.quietPeriod = quietPeriod;
+		this.sender = sender;
+		this.onError = onError;
+	}
+
+	public void submit(int id, T value, T oldValue) {
+		var entry = entries.computeIfAbsent(id, key -> {
+			var newEntry = new Entry();
+			newEntry.timer.setOnFinished(e -> flush(key));
+			return newEntry;
+		});
+		if (!entry.hasPending) {
+			entry.oldValue = oldValue;
+		}
+		entry.pendingValue = value;
+		entry.hasPending = true;
+		entry.timer.playFromStart();
+	}
+
+	public void flush(int id) {
+		var entry = entries.get(id);
+		if (entry == null || !entry.hasPending) {
+			return;
+		}
+		entry.timer.stop();
+		// The latest value is sent when the current request completes.
+		if (entry.inFlight) {
+			return;
+		}
+
+		var value = entry.pendingValue;
+		var oldValue = entry.oldValue;
+		entry.pendingValue = null;
+		entry.oldValue = null;
+		entry.hasPending = false;
+		entry.inFlight = true;
+		sender.send(id, value, oldValue).whenComplete((result, e) -> {
+			entry.inFlight = false;
+			if (entries.get(id) != entry) {
+				return;
+			}
+			if (e != null) {
+				cancel(id);
+				onError.accept(e);
+			} else if (entry.hasPending && entry.timer.getStatus() != Animation.Status.RUNNING) {
+				flush(id);
+			} else if (!entry.hasPending) {
+				entries.remove(id);
+			}
+		});
+	}
+
+	// True while a value for id waits to be sent or is being sent
+	public boolean isPending(int id) {
+		return entries.containsKey(id);
+	}
+
+	public void cancel(int id) {
+		var entry = entries.remove(id);
+		if (entry != null) {
+			entry.timer.stop();
+		}
+	}
+
+	public void cancelAll() {
+		entries.values().forEach(entry -> entry.timer.stop());
+		entries.clear();
+	}
+}
@@ -0,0 +1,118 @@
+package com.example.model;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpHeaders;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * HttpClient and request builders configured from Settings.
+ * Responses may be compressed with gzip or deflate and are decoded transparently.
+ * Text is decoded in the charset given by Content-Type, UTF-8 by default.
+ */
+public class HttpTransport {
+	private final HttpClient httpClient;
+	private final Duration requestTimeout;
+	private final boolean compression;
+
+	public HttpTransport(Settings settings) {
+		var threadCount = new AtomicInteger();
+		ExecutorService executor = Executors.newFixedThreadPool(settings.getHttpThreads(), runnable -> {
+			var thread = new Thread(runnable, "http-client-" + threadCount.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		});
+		httpClient = HttpClient.newBuilder()
+				.version(settings.getHttpVersion())
+				.connectTimeout(Duration.ofMillis(settings.getConnectTimeoutMillis()))
+				.executor(executor)
+				.build();
+		requestTimeout = Duration.ofMillis(settings.getRequestTimeoutMillis());
+		compression = settings.isHttpCompression();
+	}
+
+	public HttpClient client() {
+		return httpClient;
+	}
+
+	// path is relative to rootEndPoint, e.g. "/todos"
+	public HttpRequest.Builder newRequest(String path) {
+		var builder = HttpRequest.newBuilder()
+				.uri(URI.create(Settings.getInstance().getRootEndPoint() + path))
+				.timeout(requestTimeout);
+		if (compression) {
+			builder.header("Accept-Encoding", "gzip, deflate");
+		}
+		return builder;
+	}
+
+	/**
+	 * Decodes the whole body into a String in the charset of its Content-Type.
+	 * A body that cannot be decoded fails the request with an UncheckedIOException.
+	 */
+	public HttpResponse.BodyHandler<String> ofString() {
+		return responseInfo -> {
+			var encoding = responseInfo.headers().firstValue("Content-Encoding").orElse("");
+			var charset = charset(responseInfo.headers());
+			return HttpResponse.BodySubscribers.mapping(HttpResponse.BodySubscribers.ofByteArray(), bytes -> {
+				try (var in = decode(new ByteArrayInputStream(bytes), encoding)) {
+					return new String(in.readAllBytes(), charset);
+				} catch (IOException e) {
+					throw new UncheckedIOException(e);
+				}
+			});
+		};
+	}
+
+	/**
+	 * Wraps a streamed body with a decoder for its Content-Encoding.
+	 * Decoders read the stream header, so this must not be called on the HttpClient executor.
+	 */
+	public InputStream decodedBody(HttpResponse<InputStream> res) throws IOException {
+		return decode(res.body(), res.headers().firstValue("Content-Encoding").orElse(""));
+	}
+
+	// Like decodedBody, and reads the text in the charset of its Content-Type
+	public Reader decodedReader(HttpResponse<InputStream> res) throws IOException {
+		return new InputStreamReader(decodedBody(res), charset(res.headers()));
+	}
+
+	// The charset parameter of Content-Type, UTF-8 if there is none or it is not supported, as for JSON
+	static Charset charset(HttpHeaders headers) {
+		var contentType = headers.firstValue("Content-Type").orElse("");
+		for (var parameter : contentType.split(";")) {
+			var nameValue = parameter.split("=", 2);
+			if (nameValue.length == 2 && nameValue[0].trim().equalsIgnoreCase("charset")) {
+				try {
+					return Charset.forName(nameValue[1].trim().replace("\"", ""));
+				} catch (IllegalArgumentException e) {
+					break;
+				}
+			}
+		}
+		return StandardCharsets.UTF_8;
+	}
+
+	private static InputStream decode(InputStream in, String encoding) throws IOException {
+		return switch (encoding.trim().toLowerCase()) {
+			case "gzip", "x-gzip" -> new GZIPInputStream(in);
+			case "deflate" -> new InflaterInputStream(in);
+			default -> in;
+		};
+	}
+}
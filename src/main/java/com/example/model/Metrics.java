@@ -0,0 +1,74 @@
+package com.example.model;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+/**
+ * Registry of OperationMetrics.
+ * Each operation is published as the MBean "com.example:type=Operation,name=...".
+ * If metricsDumpIntervalSeconds is set, all operations are also appended to ./metrics.log periodically.
+ */
+public class Metrics {
+	private static final Logger logger = Logger.getLogger(Metrics.class.getName());
+	private static final Path dumpPath = Path.of("./metrics.log");
+	private final Map<String, OperationMetrics> operations = new ConcurrentHashMap<>();
+
+	private Metrics() {
+		int interval = Settings.getInstance().getMetricsDumpIntervalSeconds();
+		if (interval > 0) {
+			var executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+				var thread = new Thread(runnable, "metrics-dump");
+				thread.setDaemon(true);
+				return thread;
+			});
+			executor.scheduleAtFixedRate(this::dump, interval, interval, TimeUnit.SECONDS);
+		}
+	}
+
+	private static class SingletonHolder {
+		private static final Metrics singleton = new Metrics();
+	}
+
+	// Metrics are recorded on HTTP client threads too, so the holder is initialized by the class loader
+	public static Metrics getInstance() {
+		return SingletonHolder.singleton;
+	}
+
+	public OperationMetrics operation(String name) {
+		return operations.computeIfAbsent(name, key -> {
+			var metrics = new OperationMetrics(key);
+			try {
+				var objectName = new ObjectName("com.example:type=Operation,name=" + ObjectName.quote(key));
+				ManagementFactory.getPlatformMBeanServer().registerMBean(metrics, objectName);
+			} catch (JMException e) {
+				logger.warning("Cannot register MBean of " + key + ": " + e.getMessage());
+			}
+			return metrics;
+		});
+	}
+
+	private void dump() {
+		var builder = new StringBuilder();
+		builder.append("# ").append(LocalDateTime.now()).append('\n');
+		operations.values().stream()
+				.sorted((a, b) -> a.getName().compareTo(b.getName()))
+				.forEach(metrics -> builder.append(metrics).append('\n'));
+		try {
+			Files.writeString(dumpPath, builder, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+		} catch (IOException e) {
+			logger.warning("Cannot dump metrics: " + e.getMessage());
+		}
+	}
+}
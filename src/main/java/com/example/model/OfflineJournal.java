@@ -0,0 +1,390 @@
+package com.example.model;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
+import java.util.logging.Logger;
+
+import com.example.exceptions.ToDoServiceException;
+import com.google.gson.Gson;
+import com.google.gson.JsonSyntaxException;
+
+import javafx.animation.PauseTransition;
+import javafx.util.Duration;
+
+/**
+ * Append-only journal of operations that could not be sent because the server was unreachable.
+ * The operations are replayed in order when the server is reachable again.
+ * A ToDo created offline has a negative temporary id until its create operation is replayed.
+ * Appended lines are fsync'd in batches by a background thread.
+ * Each operation belongs to the account it was made with, and is replayed only while that account is used.
+ * Operations of other accounts are kept in the journal until their account is used again.
+ * Except for the constructor, all methods must be called on the JavaFX Application Thread.
+ */
+public final class OfflineJournal {
+	public static final String CREATE = "create";
+	public static final String UPDATE = "update";
+	public static final String DELETE = "delete";
+	public static final String DELETE_ALL = "deleteAll";
+	private static final String ACK = "ack";
+
+	private static final Path journalPath = Path.of("./todos.journal");
+	private static final long SYNC_DELAY_MILLIS = 200;
+	private final Logger logger = Logger.getLogger(OfflineJournal.class.getName());
+	private final Gson gson = new Gson();
+	private final ScheduledExecutorService writer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+		var thread = new Thread(runnable, "journal-writer");
+		thread.setDaemon(true);
+		return thread;
+	});
+	private final PauseTransition retryTimer = new PauseTransition(Duration.seconds(5));
+	// Operations of the current account
+	private final Deque<Operation> pending = new ArrayDeque<>();
+	// Operations of other accounts
+	private final List<Operation> otherAccounts = new ArrayList<>();
+	private Account account;
+	// Temporary id -> id assigned by the server
+	private final Map<Integer, Integer> serverIds = new HashMap<>();
+	private final BiConsumer<Integer, ToDo> onCreated;
+	private FileChannel channel;
+	private boolean syncScheduled = false;
+	// Number of pending operations of all accounts as seen by the writer thread
+	private volatile int pendingCount = 0;
+	private long nextSeq = 1;
+	private int nextTemporaryId = -1;
+	private CompletableFuture<Void> replaying;
+
+	/**
+	 * One line of the journal.
+	 * An ack line marks the operation with the same seq as done. The ack of a create has the server id.
+	 * The value of an update is the string form of the new value.
+	 * An ack has no account. Lines written before accounts were recorded belong to the current account.
+	 */
+	public record Operation(long seq, String type, int id, String field, String value,
+			String title, String date, int priority, boolean completed, Account account) {
+		static Operation ack(long seq, int id) {
+			return new Operation(seq, ACK, id, null, null, null, null, 0, false, null);
+		}
+
+		// The value of an update in the type of its field
+		public Object typedValue() {
+			if (value == null) {
+				return null;
+			}
+			return switch (field) {
+				case ToDo.DATE -> LocalDate.parse(value);
+				case ToDo.PRIORITY -> Integer.parseInt(value);
+				case ToDo.COMPLETED -> Boolean.parseBoolean(value);
+				default -> value;
+			};
+		}
+
+		public LocalDate localDate() {
+			return date == null ? null : LocalDate.parse(date);
+		}
+	}
+
+	public record Account(String rootEndPoint, String userName) {
+		// The account that requests are sent with
+		public static Account current() {
+			return new Account(Settings.getInstance().getRootEndPoint(), ToDoService.getInstance().userName.get());
+		}
+	}
+
+	/**
+	 * onCreated receives the temporary id and the ToDo created by the server when a create has been replayed.
+	 */
+	public OfflineJournal(BiConsumer<Integer, ToDo> onCreated) {
+		this.onCreated = onCreated;
+		retryTimer.setOnFinished(e -> replay().exceptionally(ex -> null));
+		recover();
+	}
+
+	// Restores the operations that had not been acknowledged before the last exit or crash
+	private void recover() {
+		account = Account.current();
+		Map<Long, Operation> operations = new LinkedHashMap<>();
+		try {
+			// Not readAllLines, which fails on a last line torn inside a multi-byte character
+			for (var line : new String(Files.readAllBytes(journalPath), StandardCharsets.UTF_8).split("\n")) {
+				Operation op;
+				try {
+					op = gson.fromJson(line, Operation.class);
+				} catch (JsonSyntaxException e) {
+					// The last line may be incomplete if the process was killed while writing it
+					logger.warning("recover: skip broken line");
+					continue;
+				}
+				if (op == null || op.type() == null) {
+					continue;
+				}
+				nextSeq = Math.max(nextSeq, op.seq() + 1);
+				if (op.type().equals(ACK)) {
+					var done = operations.remove(op.seq());
+					if (done != null && done.type().equals(CREATE)) {
+						serverIds.put(done.id(), op.id());
+					}
+				} else {
+					if (op.account() == null) {
+						op = withAccount(op, account);
+					}
+					operations.put(op.seq(), op);
+					nextTemporaryId = Math.min(nextTemporaryId, op.id() - 1);
+				}
+			}
+		} catch (NoSuchFileException e) {
+			// Nothing to recover
+		} catch (IOException e) {
+			logger.severe("recover: " + e.getMessage());
+		}
+		operations.values().forEach(op -> (op.account().equals(account) ? pending : otherAccounts).add(op));
+		pendingCount = operations.size();
+		serverIds.keySet().forEach(temporaryId -> nextTemporaryId = Math.min(nextTemporaryId, temporaryId - 1));
+		if (!pending.isEmpty()) {
+			logger.info("recover: " + pending.size() + " operations are waiting for replay");
+		}
+		if (!otherAccounts.isEmpty()) {
+			logger.info("recover: " + otherAccounts.size() + " operations of other accounts are kept");
+		}
+
+		try {
+			// Rewrite the journal with only the pending operations
+			// and the server ids of temporary ids they may refer to
+			var lines = new ArrayList<String>();
+			if (!operations.isEmpty()) {
+				serverIds.forEach((temporaryId, serverId) -> {
+					long seq = nextSeq++;
+					lines.add(gson.toJson(new Operation(seq, CREATE, temporaryId, null, null, null, null, 0, false, null)));
+					lines.add(gson.toJson(Operation.ack(seq, serverId)));
+				});
+			}
+			operations.values().forEach(op -> lines.add(gson.toJson(op)));
+			Path tmpPath = journalPath.resolveSibling(journalPath.getFileName() + ".tmp");
+			Files.write(tmpPath, lines, StandardCharsets.UTF_8);
+			Files.move(tmpPath, journalPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+			channel = FileChannel.open(journalPath, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+		} catch (IOException e) {
+			logger.severe("recover: " + e.getMessage());
+		}
+	}
+
+	private static Operation withAccount(Operation op, Account account) {
+		return new Operation(op.seq(), op.type(), op.id(), op.field(), op.value(), op.title(), op.date(),
+				op.priority(), op.completed(), account);
+	}
+
+	// Sets the operations of the current account aside when another account is used, e.g. after Account Settings
+	private void checkAccount() {
+		var current = Account.current();
+		if (current.equals(account)) {
+			return;
+		}
+		account = current;
+		List<Operation> all = new ArrayList<>(pending);
+		all.addAll(otherAccounts);
+		all.sort(Comparator.comparingLong(Operation::seq));
+		pending.clear();
+		otherAccounts.clear();
+		all.forEach(op -> (op.account().equals(account) ? pending : otherAccounts).add(op));
+		if (!otherAccounts.isEmpty()) {
+			logger.info("The account has changed. " + otherAccounts.size()
+					+ " operations of other accounts are kept until their account is used again.");
+		}
+	}
+
+	// Pending operations are those of the current account
+	public boolean hasPending() {
+		checkAccount();
+		return !pending.isEmpty();
+	}
+
+	public List<Operation> pendingOperations() {
+		checkAccount();
+		return Collections.unmodifiableList(new ArrayList<>(pending));
+	}
+
+	public int newTemporaryId() {
+		return nextTemporaryId--;
+	}
+
+	// Returns the server id if id is a temporary id whose create has been replayed
+	public int resolve(int id) {
+		return serverIds.getOrDefault(id, id);
+	}
+
+	public void appendCreate(int temporaryId, String title, LocalDate date, int priority, boolean completed) {
+		checkAccount();
+		append(new Operation(nextSeq++, CREATE, temporaryId, null, null, title,
+				date == null ? null : date.toString(), priority, completed, account));
+	}
+
+	public void appendUpdate(int id, String fieldName, Object value) {
+		checkAccount();
+		append(new Operation(nextSeq++, UPDATE, id, fieldName, value == null ? null : value.toString(),
+				null, null, 0, false, account));
+	}
+
+	public void appendDelete(int id) {
+		checkAccount();
+		append(new Operation(nextSeq++, DELETE, id, null, null, null, null, 0, false, account));
+	}
+
+	public void appendDeleteAll() {
+		checkAccount();
+		append(new Operation(nextSeq++, DELETE_ALL, 0, null, null, null, null, 0, false, account));
+	}
+
+	private void append(Operation op) {
+		pending.add(op);
+		pendingCount = pending.size() + otherAccounts.size();
+		write(op);
+		scheduleRetry();
+	}
+
+	private void write(Operation op) {
+		var line = gson.toJson(op) + "\n";
+		writer.execute(() -> {
+			try {
+				if (channel != null) {
+					channel.write(ByteBuffer.wrap(line.getBytes(StandardCharsets.UTF_8)));
+				}
+			} catch (IOException e) {
+				logger.severe("write: " + e.getMessage());
+			}
+			// Lines written within SYNC_DELAY_MILLIS share one fsync
+			if (!syncScheduled) {
+				syncScheduled = true;
+				writer.schedule(this::sync, SYNC_DELAY_MILLIS, TimeUnit.MILLISECONDS);
+			}
+		});
+	}
+
+	// Runs on the writer thread
+	private void sync() {
+		syncScheduled = false;
+		try {
+			if (channel != null) {
+				channel.force(false);
+				// Start a new journal when all operations have been acknowledged
+				if (pendingCount == 0) {
+					channel.truncate(0);
+				}
+			}
+		} catch (IOException e) {
+			logger.severe("sync: " + e.getMessage());
+		}
+	}
+
+	private void scheduleRetry() {
+		if (replaying == null) {
+			retryTimer.playFromStart();
+		}
+	}
+
+	/**
+	 * Replays all pending operations in order, including those appended during the replay.
+	 * Fails with IO_ERROR if the server is still unreachable, and then retries later.
+	 */
+	public CompletableFuture<Void> replay() {
+		if (replaying != null) {
+			return replaying;
+		}
+		checkAccount();
+		if (pending.isEmpty()) {
+			return CompletableFuture.completedFuture(null);
+		}
+		retryTimer.stop();
+		replaying = new CompletableFuture<>();
+		var result = replaying;
+		replayNext();
+		return result;
+	}
+
+	private void replayNext() {
+		// The next operations are sent with the credentials of their account
+		checkAccount();
+		pendingCount = pending.size() + otherAccounts.size();
+		var op = pending.peek();
+		if (op == null) {
+			finishReplay(null);
+			return;
+		}
+
+		send(op).whenComplete((serverId, e) -> {
+			var cause = e instanceof CompletionException ? e.getCause() : e;
+			if (cause instanceof ToDoServiceException tdse && tdse.getType() == ToDoServiceException.Type.IO_ERROR) {
+				logger.warning("replay: the server is still unreachable");
+				finishReplay(cause);
+				retryTimer.playFromStart();
+				return;
+			}
+			if (cause != null) {
+				// The server has rejected the operation. The next sync restores the server state.
+				logger.severe("replay: drop " + op.type() + " of " + op.id() + ": " + cause.getMessage());
+			}
+			// The account may have changed while op was sent
+			if (!pending.remove(op)) {
+				otherAccounts.remove(op);
+			}
+			write(Operation.ack(op.seq(), serverId == null ? 0 : serverId));
+			replayNext();
+		});
+	}
+
+	private void finishReplay(Throwable cause) {
+		var result = replaying;
+		replaying = null;
+		pendingCount = pending.size() + otherAccounts.size();
+		if (cause == null) {
+			result.complete(null);
+		} else {
+			result.completeExceptionally(cause);
+		}
+	}
+
+	// Completes with the server id for a create, otherwise with null
+	private CompletableFuture<Integer> send(Operation op) {
+		var service = ToDoService.getInstance();
+		int id = resolve(op.id());
+		return switch (op.type()) {
+			case CREATE -> service.createAsync(op.title(), op.localDate(), op.priority(), op.completed())
+					.thenApply(todo -> {
+						serverIds.put(op.id(), todo.getId());
+						onCreated.accept(op.id(), todo);
+						return todo.getId();
+					});
+			case UPDATE -> (switch (op.field()) {
+				case ToDo.TITLE -> service.updateTitleAsync(id, (String) op.typedValue());
+				case ToDo.DATE -> service.updateDateAsync(id, (LocalDate) op.typedValue());
+				case ToDo.PRIORITY -> service.updatePriorityAsync(id, (Integer) op.typedValue());
+				case ToDo.COMPLETED -> service.updateCompletedAsync(id, (Boolean) op.typedValue());
+				default -> CompletableFuture.<Void>failedFuture(new IllegalArgumentException("Unknown field: " + op.field()));
+			}).thenApply(result -> (Integer) null);
+			case DELETE -> service.deleteAsync(id).thenApply(result -> (Integer) null);
+			case DELETE_ALL -> service.deleteAllAsync().thenApply(result -> (Integer) null);
+			default -> CompletableFuture.failedFuture(new IllegalArgumentException("Unknown operation: " + op.type()));
+		};
+	}
+}
@@ -0,0 +1,152 @@
+package com.example.model;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counters and a latency histogram of one operation.
+ * Latencies are counted in buckets of powers of two microseconds, so percentiles are
+ * upper bounds within a factor of two. Recording is lock-free and may happen on any thread.
+ */
+public class OperationMetrics implements OperationMetricsMBean {
+	private static final int BUCKETS = 40;
+
+	private final String name;
+	private final LongAdder count = new LongAdder();
+	private final LongAdder errorCount = new LongAdder();
+	private final LongAdder retryCount = new LongAdder();
+	private final LongAdder bytesSent = new LongAdder();
+	private final LongAdder bytesReceived = new LongAdder();
+	private final LongAdder totalNanos = new LongAdder();
+	private final AtomicLong maxNanos = new AtomicLong();
+	private final AtomicLongArray histogram = new AtomicLongArray(BUCKETS);
+
+	OperationMetrics(String name) {
+		this.name = name;
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	public void record(long nanos, boolean error) {
+		count.increment();
+		if (error) {
+			errorCount.increment();
+		}
+		totalNanos.add(nanos);
+		maxNanos.accumulateAndGet(nanos, Math::max);
+		long micros = Math.max(1, nanos / 1000);
+		histogram.incrementAndGet(Math.min(BUCKETS - 1, 63 - Long.numberOfLeadingZeros(micros)));
+	}
+
+	public void recordSince(long startNanos, boolean error) {
+		record(System.nanoTime() - startNanos, error);
+	}
+
+	public void recordRetry() {
+		retryCount.increment();
+	}
+
+	public void recordBytes(long sent, long received) {
+		bytesSent.add(Math.max(0, sent));
+		bytesReceived.add(Math.max(0, received));
+	}
+
+	@Override
+	public long getCount() {
+		return count.sum();
+	}
+
+	@Override
+	public long getErrorCount() {
+		return errorCount.sum();
+	}
+
+	@Override
+	public long getRetryCount() {
+		return retryCount.sum();
+	}
+
+	@Override
+	public long getBytesSent() {
+		return bytesSent.sum();
+	}
+
+	@Override
+	public long getBytesReceived() {
+		return bytesReceived.sum();
+	}
+
+	@Override
+	public double getMeanLatencyMillis() {
+		long n = count.sum();
+		return n == 0 ? 0 : totalNanos.sum() / 1e6 / n;
+	}
+
+	@Override
+	public double getMaxLatencyMillis() {
+		return maxNanos.get() / 1e6;
+	}
+
+	@Override
+	public double getP50LatencyMillis() {
+		return percentile(0.50);
+	}
+
+	@Override
+	public double getP95LatencyMillis() {
+		return percentile(0.95);
+	}
+
+	@Override
+	public double getP99LatencyMillis() {
+		return percentile(0.99);
+	}
+
+	private double percentile(double p) {
+		long[] counts = new long[BUCKETS];
+		long total = 0;
+		for (int i = 0; i < BUCKETS; i++) {
+			counts[i] = histogram.get(i);
+			total += counts[i];
+		}
+		if (total == 0) {
+			return 0;
+		}
+		long rank = (long) Math.ceil(p * total);
+		long seen = 0;
+		for (int i = 0; i < BUCKETS; i++) {
+			seen += counts[i];
+			if (seen >= rank) {
+				// Upper bound of the bucket in milliseconds
+				return Math.min((1L << (i + 1)) / 1e3, getMaxLatencyMillis());
+			}
+		}
+		return getMaxLatencyMillis();
+	}
+
+	@Override
+	public void reset() {
+		count.reset();
+		errorCount.reset();
+		retryCount.reset();
+		bytesSent.reset();
+		bytesReceived.reset();
+		totalNanos.reset();
+		maxNanos.set(0);
+		for (int i = 0; i < BUCKETS; i++) {
+			histogram.set(i, 0);
+		}
+	}
+
+	@Override
+	public String toString() {
+		return String.format("%s count=%d errors=%d retries=%d sent=%d received=%d"
+				+ " mean=%.2fms p50=%.2fms p95=%.2fms p99=%.2fms max=%.2fms",
+				name, getCount(), getErrorCount(), getRetryCount(), getBytesSent(), getBytesReceived(),
+				getMeanLatencyMillis(), getP50LatencyMillis(), getP95LatencyMillis(), getP99LatencyMillis(),
+				getMaxLatencyMillis());
+	}
+}
@@ -0,0 +1,26 @@
+package com.example.model;
+
+// Attributes of one operation as seen by JMX clients such as JConsole or jcmd
+public interface OperationMetricsMBean {
+	long getCount();
+
+	long getErrorCount();
+
+	long getRetryCount();
+
+	long getBytesSent();
+
+	long getBytesReceived();
+
+	double getMeanLatencyMillis();
+
+	double getMaxLatencyMillis();
+
+	double getP50LatencyMillis();
+
+	double getP95LatencyMillis();
+
+	double getP99LatencyMillis();
+
+	void reset();
+}
@@ -0,0 +1,70 @@
+package com.example.model;
+
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.logging.Logger;
+
+import javafx.application.Platform;
+import javafx.beans.property.ReadOnlyBooleanProperty;
+import javafx.beans.property.ReadOnlyBooleanWrapper;
+
+/**
+ * Retry and circuit breaker policy of ToDoService.
+ * Only idempotent requests are retried, after an exponential backoff with full jitter,
+ * so that clients do not all come back at the same moment after a server restart.
+ */
+public class ResiliencePolicy {
+	private static final Logger logger = Logger.getLogger(ResiliencePolicy.class.getName());
+	private static final Set<String> IDEMPOTENT_METHODS = Set.of("GET", "HEAD", "PUT", "DELETE");
+	private static final int MAX_RETRIES = 3;
+	private static final Duration BASE_DELAY = Duration.ofMillis(200);
+	private static final Duration MAX_DELAY = Duration.ofSeconds(5);
+	private static final int FAILURE_THRESHOLD = 5;
+	private static final Duration OPEN_DURATION = Duration.ofSeconds(10);
+
+	private final Map<String, CircuitBreaker> breakers = new ConcurrentHashMap<>();
+	// True while the breaker of any endpoint is open. Updated on the JavaFX Application Thread.
+	private final ReadOnlyBooleanWrapper offline = new ReadOnlyBooleanWrapper(false);
+
+	public ReadOnlyBooleanProperty offlineProperty() {
+		return offline.getReadOnlyProperty();
+	}
+
+	public boolean isOffline() {
+		return offline.get();
+	}
+
+	// One breaker per scheme and authority, e.g. "http://localhost:8080"
+	public CircuitBreaker breaker(URI uri) {
+		var endpoint = uri.getScheme() + "://" + uri.getRawAuthority();
+		return breakers.computeIfAbsent(endpoint, key -> new CircuitBreaker(FAILURE_THRESHOLD, OPEN_DURATION, state -> {
+			logger.info("Circuit breaker of " + key + ": " + state);
+			Platform.runLater(this::updateOffline);
+		}));
+	}
+
+	private void updateOffline() {
+		offline.set(breakers.values().stream().anyMatch(breaker -> breaker.getState() != CircuitBreaker.State.CLOSED));
+	}
+
+	// attempt is the number of attempts made so far, starting from 1
+	public boolean shouldRetry(HttpRequest request, int attempt) {
+		return attempt <= MAX_RETRIES && IDEMPOTENT_METHODS.contains(request.method());
+	}
+
+	// 501 Not Implemented will not change by retrying
+	public boolean isRetryableStatus(int statusCode) {
+		return statusCode == 500 || statusCode == 502 || statusCode == 503 || statusCode == 504;
+	}
+
+	// A random delay up to BASE_DELAY * 2^(attempt - 1), bounded by MAX_DELAY
+	public Duration backoff(int attempt) {
+		long cap = Math.min(MAX_DELAY.toMillis(), BASE_DELAY.toMillis() << Math.min(attempt - 1, 20));
+		return Duration.ofMillis(ThreadLocalRandom.current().nextLong(cap + 1));
+	}
+}
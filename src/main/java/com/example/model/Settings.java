@@ -1,10 +1,19 @@
 package com.example.model;
 
+import java.net.http.HttpClient;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.GeneralSecurityException;
 import java.util.Base64;
 import java.util.Locale;
+import java.util.Objects;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
 import java.util.logging.Logger;
 
 import javax.crypto.Cipher;
@@ -18,6 +27,8 @@ import com.google.gson.Gson;
 
 public class Settings {
 	private final String settingsPath = "./settings.json";
+	// Saves requested within this delay are written once
+	private static final long SAVE_DELAY_MILLIS = 500;
 	private final Logger logger = Logger.getLogger(MvcApp.class.getName());
 	private final Gson gson = FxGson.coreBuilder().setPrettyPrinting().create();
 	// Please note that the key value is embedded in the code.
@@ -25,21 +36,44 @@ public class Settings {
 	// such as Windows Credential Manager or Mac's Keychain.
 	private final SecretKeySpec key = new SecretKeySpec(getUTF8Bytes("bgkjyt78AyofjaBc"), "AES");
 	private final IvParameterSpec iv = new IvParameterSpec(getUTF8Bytes("lhY'6D3assFfa1g*"));
+	// Created when a password is first encrypted or decrypted
 	private Cipher cipher;
 	private Locale locale;
 	private String rootEndPoint;
+	// HTTP transport
+	private HttpClient.Version httpVersion = HttpClient.Version.HTTP_2;
+	private int connectTimeoutMillis = 5000;
+	private int requestTimeoutMillis = 30000;
+	private int httpThreads = 4;
+	private boolean httpCompression = true;
 	private String userName;
 	private String password;
+	// Write-behind queue of field updates
+	private int flushSize = 50;
+	private int flushIntervalMillis = 1000;
+	// Show todos in a ListView which creates rows only for visible todos
+	private boolean virtualizedList = false;
+	// Switch to the ListView once more todos than this are shown
+	private int virtualizedListThreshold = 100;
+	// Interval of appending metrics to ./metrics.log, 0 disables it
+	private int metricsDumpIntervalSeconds = 0;
+	// Requests of a bulk operation sent at the same time
+	private int bulkMaxInFlight = 8;
+	// True when a value differs from the one in settings.json
+	private boolean dirty = false;
+	private final ScheduledExecutorService writer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+		var thread = new Thread(runnable, "settings-writer");
+		thread.setDaemon(true);
+		return thread;
+	});
+	private ScheduledFuture<?> pendingWrite;
 
-	record SettingsFile(String rootEndPoint, String language, String userName, String password) {}
+	record SettingsFile(String rootEndPoint, String httpVersion, Integer connectTimeoutMillis,
+			Integer requestTimeoutMillis, Integer httpThreads, Boolean httpCompression, String language, String userName, String password,
+			Integer flushSize, Integer flushIntervalMillis, Boolean virtualizedList,
+			Integer virtualizedListThreshold, Integer metricsDumpIntervalSeconds, Integer bulkMaxInFlight) {}
 
 	private Settings() {
-		try {
-			cipher = Cipher.getInstance("AES/CBC/PKCS5Padding");
-
-		} catch (Exception e) {
-			logger.severe("Cipher init error: " + e.getMessage());
-		}
 		load();
 	}
 
@@ -58,17 +92,70 @@ public class Settings {
 		return input.getBytes(StandardCharsets.UTF_8);
 	}
 
-	public void save() {
+	private synchronized Cipher getCipher() throws GeneralSecurityException {
+		if (cipher == null) {
+			cipher = Cipher.getInstance("AES/CBC/PKCS5Padding");
+		}
+		return cipher;
+	}
+
+	/**
+	 * Schedules a write of settings.json if any value has changed since the last write.
+	 * The file is written on a background thread and replaced atomically.
+	 */
+	public synchronized void save() {
+		if (!dirty || pendingWrite != null) {
+			return;
+		}
+		pendingWrite = writer.schedule(this::write, SAVE_DELAY_MILLIS, TimeUnit.MILLISECONDS);
+	}
+
+	// Writes pending changes immediately and waits for the write to finish
+	public void flush() {
+		synchronized (this) {
+			if (pendingWrite != null) {
+				pendingWrite.cancel(false);
+			}
+			pendingWrite = null;
+		}
+		try {
+			writer.submit(this::write).get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		} catch (ExecutionException e) {
+			logger.severe("Error in flush: " + e.getMessage());
+		}
+	}
+
+	private void write() {
 		try {
-			cipher.init(Cipher.ENCRYPT_MODE, key, iv);
-			byte[] encrypted = cipher.doFinal(password.getBytes());
-			String encoded = Base64.getEncoder().encodeToString(encrypted);
-			var json = gson.toJson(new SettingsFile(rootEndPoint, locale.getLanguage(), userName, encoded));
-			Files.writeString(Path.of(settingsPath), json);
+			String json;
+			synchronized (this) {
+				pendingWrite = null;
+				if (!dirty) {
+					return;
+				}
+				var cipher = getCipher();
+				cipher.init(Cipher.ENCRYPT_MODE, key, iv);
+				byte[] encrypted = cipher.doFinal(password.getBytes());
+				String encoded = Base64.getEncoder().encodeToString(encrypted);
+				json = gson.toJson(new SettingsFile(rootEndPoint, httpVersion.name(), connectTimeoutMillis,
+						requestTimeoutMillis, httpThreads, httpCompression, locale.getLanguage(), userName, encoded,
+						flushSize, flushIntervalMillis, virtualizedList, virtualizedListThreshold, metricsDumpIntervalSeconds,
+						bulkMaxInFlight));
+				dirty = false;
+			}
+			var tmpPath = Path.of(settingsPath + ".tmp");
+			Files.writeString(tmpPath, json);
+			Files.move(tmpPath, Path.of(settingsPath), StandardCopyOption.REPLACE_EXISTING,
+					StandardCopyOption.ATOMIC_MOVE);
 		} catch (Exception e) {
 			logger.severe("Error in save: " + e.getMessage());
+			// Try again on the next save
+			synchronized (this) {
+				dirty = true;
+			}
 		}
-
 	}
 
 	public void load() {
@@ -76,15 +163,35 @@ public class Settings {
 			var settings = gson.fromJson(Files.readString(Path.of(settingsPath)), SettingsFile.class);
 
 			setRootEndPoint(settings.rootEndPoint);
+			if (settings.httpVersion != null) {
+				try {
+					setHttpVersion(HttpClient.Version.valueOf(settings.httpVersion));
+				} catch (IllegalArgumentException e) {
+					logger.warning("Unknown httpVersion: " + settings.httpVersion);
+				}
+			}
+			if (settings.connectTimeoutMillis != null && settings.connectTimeoutMillis > 0) {
+				setConnectTimeoutMillis(settings.connectTimeoutMillis);
+			}
+			if (settings.requestTimeoutMillis != null && settings.requestTimeoutMillis > 0) {
+				setRequestTimeoutMillis(settings.requestTimeoutMillis);
+			}
+			if (settings.httpThreads != null && settings.httpThreads > 0) {
+				setHttpThreads(settings.httpThreads);
+			}
+			if (settings.httpCompression != null) {
+				setHttpCompression(settings.httpCompression);
+			}
 
 			// Get user default locale
 			var userDefaultLocale = Locale.getDefault();
+			var languageDefaulted = false;
 			// Use messages.properties as default resource bundle
 			Locale.setDefault(Locale.of("en", "US"));
 			if (settings.language == null || settings.language.isEmpty()) {
 				setLocale(userDefaultLocale);
 				logger.warning("Use default language: " + locale.getLanguage());
-				save();
+				languageDefaulted = true;
 			} else {
 				setLocale(Locale.of(settings.language));
 				logger.warning("Use language: " + locale.getLanguage());
@@ -100,10 +207,36 @@ public class Settings {
 				setPassword("");
 			}
 			else {
+				var cipher = getCipher();
 				cipher.init(Cipher.DECRYPT_MODE, key, iv);
 				byte[] decrpyted = cipher.doFinal(Base64.getDecoder().decode(settings.password));
 				setPassword(new String(decrpyted));
 			}
+
+			if (settings.flushSize != null && settings.flushSize > 0) {
+				setFlushSize(settings.flushSize);
+			}
+			if (settings.flushIntervalMillis != null && settings.flushIntervalMillis > 0) {
+				setFlushIntervalMillis(settings.flushIntervalMillis);
+			}
+			if (settings.virtualizedList != null) {
+				setVirtualizedList(settings.virtualizedList);
+			}
+			if (settings.virtualizedListThreshold != null && settings.virtualizedListThreshold >= 0) {
+				setVirtualizedListThreshold(settings.virtualizedListThreshold);
+			}
+			if (settings.metricsDumpIntervalSeconds != null && settings.metricsDumpIntervalSeconds >= 0) {
+				setMetricsDumpIntervalSeconds(settings.metricsDumpIntervalSeconds);
+			}
+			if (settings.bulkMaxInFlight != null && settings.bulkMaxInFlight > 0) {
+				setBulkMaxInFlight(settings.bulkMaxInFlight);
+			}
+
+			// Values read from the file are not changes, except for the default language
+			synchronized (this) {
+				dirty = languageDefaulted;
+			}
+			save();
 		} catch (Exception e) {
 			logger.severe("Initializing Settings error: " + e.getMessage());
 		}
@@ -113,7 +246,8 @@ public class Settings {
 		return locale;
 	}
 
-	public void setLocale(Locale locale) {
+	public synchronized void setLocale(Locale locale) {
+		dirty |= !Objects.equals(this.locale, locale);
 		this.locale = locale;
 	}
 
@@ -121,15 +255,62 @@ public class Settings {
 		return rootEndPoint;
 	}
 
-	public void setRootEndPoint(String rootEndPoint) {
+	public synchronized void setRootEndPoint(String rootEndPoint) {
+		dirty |= !Objects.equals(this.rootEndPoint, rootEndPoint);
 		this.rootEndPoint = rootEndPoint;
 	}
 
+	public HttpClient.Version getHttpVersion() {
+		return httpVersion;
+	}
+
+	public synchronized void setHttpVersion(HttpClient.Version httpVersion) {
+		dirty |= this.httpVersion != httpVersion;
+		this.httpVersion = httpVersion;
+	}
+
+	public int getConnectTimeoutMillis() {
+		return connectTimeoutMillis;
+	}
+
+	public synchronized void setConnectTimeoutMillis(int connectTimeoutMillis) {
+		dirty |= this.connectTimeoutMillis != connectTimeoutMillis;
+		this.connectTimeoutMillis = connectTimeoutMillis;
+	}
+
+	public int getRequestTimeoutMillis() {
+		return requestTimeoutMillis;
+	}
+
+	public synchronized void setRequestTimeoutMillis(int requestTimeoutMillis) {
+		dirty |= this.requestTimeoutMillis != requestTimeoutMillis;
+		this.requestTimeoutMillis = requestTimeoutMillis;
+	}
+
+	public int getHttpThreads() {
+		return httpThreads;
+	}
+
+	public synchronized void setHttpThreads(int httpThreads) {
+		dirty |= this.httpThreads != httpThreads;
+		this.httpThreads = httpThreads;
+	}
+
+	public boolean isHttpCompression() {
+		return httpCompression;
+	}
+
+	public synchronized void setHttpCompression(boolean httpCompression) {
+		dirty |= this.httpCompression != httpCompression;
+		this.httpCompression = httpCompression;
+	}
+
 	public String getUserName() {
 		return userName;
 	}
 
-	public void setUserName(String userName) {
+	public synchronized void setUserName(String userName) {
+		dirty |= !Objects.equals(this.userName, userName);
 		this.userName = userName;
 	}
 
@@ -137,7 +318,62 @@ public class Settings {
 		return password;
 	}
 
-	public void setPassword(String password) {
+	public synchronized void setPassword(String password) {
+		dirty |= !Objects.equals(this.password, password);
 		this.password = password;
 	}
+
+	public int getFlushSize() {
+		return flushSize;
+	}
+
+	public synchronized void setFlushSize(int flushSize) {
+		dirty |= this.flushSize != flushSize;
+		this.flushSize = flushSize;
+	}
+
+	public int getFlushIntervalMillis() {
+		return flushIntervalMillis;
+	}
+
+	public synchronized void setFlushIntervalMillis(int flushIntervalMillis) {
+		dirty |= this.flushIntervalMillis != flushIntervalMillis;
+		this.flushIntervalMillis = flushIntervalMillis;
+	}
+
+	public boolean isVirtualizedList() {
+		return virtualizedList;
+	}
+
+	public synchronized void setVirtualizedList(boolean virtualizedList) {
+		dirty |= this.virtualizedList != virtualizedList;
+		this.virtualizedList = virtualizedList;
+	}
+
+	public int getVirtualizedListThreshold() {
+		return virtualizedListThreshold;
+	}
+
+	public synchronized void setVirtualizedListThreshold(int virtualizedListThreshold) {
+		dirty |= this.virtualizedListThreshold != virtualizedListThreshold;
+		this.virtualizedListThreshold = virtualizedListThreshold;
+	}
+
+	public int getMetricsDumpIntervalSeconds() {
+		return metricsDumpIntervalSeconds;
+	}
+
+	public synchronized void setMetricsDumpIntervalSeconds(int metricsDumpIntervalSeconds) {
+		dirty |= this.metricsDumpIntervalSeconds != metricsDumpIntervalSeconds;
+		this.metricsDumpIntervalSeconds = metricsDumpIntervalSeconds;
+	}
+
+	public int getBulkMaxInFlight() {
+		return bulkMaxInFlight;
+	}
+
+	public synchronized void setBulkMaxInFlight(int bulkMaxInFlight) {
+		dirty |= this.bulkMaxInFlight != bulkMaxInFlight;
+		this.bulkMaxInFlight = bulkMaxInFlight;
+	}
 }
@@ -0,0 +1,234 @@
+package com.example.model;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import javafx.collections.ListChangeListener;
+import javafx.collections.ObservableList;
+import javafx.collections.ObservableListBase;
+
+/**
+ * Read-only view of ToDos sorted by (completed, date, id).
+ * When completed or date of one ToDo changes, only that ToDo is moved
+ * to the position found by binary search, and a permutation is fired.
+ */
+public final class SortedToDoIndex extends ObservableListBase<ToDo> {
+	private final List<ToDo> sorted = new ArrayList<>();
+	// Each ToDo is placed by the key stored here, which is updated when the ToDo is moved.
+	// ToDo does not override equals(), so this map is keyed by identity.
+	private final Map<ToDo, SortKey> keys = new HashMap<>();
+	// ToDos whose key has changed during batch(), null outside of it
+	private Set<ToDo> deferredMoves;
+	// Moves a ToDo when a field of its key changes
+	private final ToDo.FieldListener keyListener = (todo, fieldName, oldValue, newValue) -> {
+		if (fieldName.equals(ToDo.COMPLETED) || fieldName.equals(ToDo.DATE)) {
+			if (deferredMoves != null) {
+				deferredMoves.add(todo);
+			} else {
+				move(todo);
+			}
+		}
+	};
+
+	record SortKey(boolean completed, LocalDate date, int id) implements Comparable<SortKey> {
+		private static final Comparator<SortKey> COMPARATOR = Comparator.comparing(SortKey::completed)
+				.thenComparing(SortKey::date, Comparator.nullsFirst(Comparator.naturalOrder()))
+				.thenComparingLong(key -> order(key.id()));
+
+		// Temporary ids are negative. They are placed after the server ids in the order of creation,
+		// which is where the ToDo usually stays when it gets its server id.
+		private static long order(int id) {
+			return id >= 0 ? id : (long) Integer.MAX_VALUE - id;
+		}
+
+		static SortKey of(ToDo todo) {
+			return new SortKey(todo.isCompleted(), todo.getDate(), todo.getId());
+		}
+
+		@Override
+		public int compareTo(SortKey other) {
+			return COMPARATOR.compare(this, other);
+		}
+	}
+
+	public SortedToDoIndex(ObservableList<ToDo> source) {
+		source.addListener((ListChangeListener<ToDo>) change -> {
+			// Scattered removals arrive as one sub-change each. They are removed together in one pass.
+			List<ToDo> removed = new ArrayList<>();
+			List<ToDo> added = new ArrayList<>();
+			while (change.next()) {
+				// The order of the source list does not matter
+				if (change.wasPermutated()) {
+					continue;
+				}
+				removed.addAll(change.getRemoved());
+				added.addAll(change.getAddedSubList());
+			}
+			beginChange();
+			if (removed.size() == 1) {
+				removeToDo(removed.get(0));
+			} else if (!removed.isEmpty()) {
+				removeToDos(removed);
+			}
+			added.forEach(this::addToDo);
+			endChange();
+		});
+
+		beginChange();
+		source.forEach(this::addToDo);
+		endChange();
+	}
+
+	@Override
+	public ToDo get(int index) {
+		return sorted.get(index);
+	}
+
+	@Override
+	public int size() {
+		return sorted.size();
+	}
+
+	// Returns the index of key, or (-(insertion point) - 1) if key is not found.
+	private int search(SortKey key) {
+		int low = 0;
+		int high = sorted.size() - 1;
+		while (low <= high) {
+			int mid = (low + high) >>> 1;
+			int cmp = keys.get(sorted.get(mid)).compareTo(key);
+			if (cmp < 0) {
+				low = mid + 1;
+			} else if (cmp > 0) {
+				high = mid - 1;
+			} else {
+				return mid;
+			}
+		}
+		return -(low + 1);
+	}
+
+	private int insertionPoint(SortKey key) {
+		int index = search(key);
+		return index < 0 ? -(index + 1) : index;
+	}
+
+	private void addToDo(ToDo todo) {
+		if (keys.containsKey(todo)) {
+			return;
+		}
+		var key = SortKey.of(todo);
+		int index = insertionPoint(key);
+		sorted.add(index, todo);
+		keys.put(todo, key);
+		nextAdd(index, index + 1);
+		todo.addFieldListener(keyListener);
+	}
+
+	private void removeToDo(ToDo todo) {
+		var key = keys.get(todo);
+		if (key == null) {
+			return;
+		}
+		int index = search(key);
+		sorted.remove(index);
+		keys.remove(todo);
+		nextRemove(index, todo);
+		todo.removeFieldListener(keyListener);
+	}
+
+	// Removes many ToDos in one pass instead of searching and shifting for each of them
+	private void removeToDos(List<? extends ToDo> todos) {
+		Set<ToDo> removed = new HashSet<>();
+		for (var todo : todos) {
+			if (keys.remove(todo) != null) {
+				removed.add(todo);
+				todo.removeFieldListener(keyListener);
+			}
+		}
+		if (removed.isEmpty()) {
+			return;
+		}
+
+		// Report each run of adjacent removed ToDos at its index after the previous runs are removed
+		int removedCount = 0;
+		int i = 0;
+		while (i < sorted.size()) {
+			if (!removed.contains(sorted.get(i))) {
+				i++;
+				continue;
+			}
+			int runStart = i;
+			while (i < sorted.size() && removed.contains(sorted.get(i))) {
+				i++;
+			}
+			nextRemove(runStart - removedCount, new ArrayList<>(sorted.subList(runStart, i)));
+			removedCount += i - runStart;
+		}
+		sorted.removeIf(removed::contains);
+	}
+
+	/**
+	 * Runs changes, e.g. updates of many ToDos, and then reports all moves as one change
+	 * instead of one permutation per ToDo. Moved ToDos are reported as removed and added again.
+	 */
+	public void batch(Runnable changes) {
+		if (deferredMoves != null) {
+			changes.run();
+			return;
+		}
+		deferredMoves = new HashSet<>();
+		try {
+			changes.run();
+		} finally {
+			var moved = deferredMoves.stream()
+					.filter(todo -> keys.containsKey(todo) && !keys.get(todo).equals(SortKey.of(todo)))
+					.toList();
+			deferredMoves = null;
+			if (!moved.isEmpty()) {
+				beginChange();
+				removeToDos(moved);
+				moved.forEach(this::addToDo);
+				endChange();
+			}
+		}
+	}
+
+	// Places todo again after its id has been replaced
+	public void idChanged(ToDo todo) {
+		move(todo);
+	}
+
+	private void move(ToDo todo) {
+		var oldKey = keys.get(todo);
+		var newKey = SortKey.of(todo);
+		if (oldKey == null || oldKey.equals(newKey)) {
+			return;
+		}
+		int oldIndex = search(oldKey);
+		sorted.remove(oldIndex);
+		keys.put(todo, newKey);
+		int newIndex = insertionPoint(newKey);
+		sorted.add(newIndex, todo);
+		if (oldIndex == newIndex) {
+			return;
+		}
+
+		// Elements between oldIndex and newIndex shift by one toward oldIndex
+		int from = Math.min(oldIndex, newIndex);
+		int to = Math.max(oldIndex, newIndex) + 1;
+		int shift = oldIndex < newIndex ? -1 : 1;
+		int[] permutation = new int[to - from];
+		for (int i = from; i < to; i++) {
+			permutation[i - from] = i == oldIndex ? newIndex : i + shift;
+		}
+		beginChange();
+		nextPermutation(from, to, permutation);
+		endChange();
+	}
+}
@@ -1,84 +1,241 @@
 package com.example.model;
 
 import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Objects;
 
 import javafx.beans.property.BooleanProperty;
+import javafx.beans.property.IntegerProperty;
 import javafx.beans.property.ObjectProperty;
+import javafx.beans.property.ReadOnlyIntegerProperty;
 import javafx.beans.property.SimpleBooleanProperty;
+import javafx.beans.property.SimpleIntegerProperty;
 import javafx.beans.property.SimpleObjectProperty;
 import javafx.beans.property.SimpleStringProperty;
 import javafx.beans.property.StringProperty;
 
+/**
+ * Values are kept in plain fields. A JavaFX property is created only when it is requested,
+ * e.g. when a row binds to the ToDo, and from then on the field follows the property.
+ * The model observes all fields through FieldListener, which does not create any property.
+ */
 public class ToDo {
+	public static final String TITLE = "title";
+	public static final String DATE = "date";
+	public static final String PRIORITY = "priority";
+	public static final String COMPLETED = "completed";
+
+	private static final int NO_DATE = Integer.MIN_VALUE;
+	private static final FieldListener[] NO_LISTENERS = {};
+
+	@FunctionalInterface
+	public interface FieldListener {
+		// fieldName is one of TITLE, DATE, PRIORITY and COMPLETED
+		void changed(ToDo todo, String fieldName, Object oldValue, Object newValue);
+	}
+
 	private int id;
-	private StringProperty title = new SimpleStringProperty();
-	private ObjectProperty<LocalDate> date = new SimpleObjectProperty<>();
-	private BooleanProperty completed = new SimpleBooleanProperty();
-	private ObjectProperty<Integer> priority = new SimpleObjectProperty<>();
+	private String title;
+	private int epochDay;
+	private int priority;
+	private boolean completed;
+	private FieldListener[] listeners = NO_LISTENERS;
+
+	// Created on demand
+	private IntegerProperty idProperty;
+	private StringProperty titleProperty;
+	private ObjectProperty<LocalDate> dateProperty;
+	private ObjectProperty<Integer> priorityProperty;
+	private BooleanProperty completedProperty;
 
 	// Constructor
 	public ToDo(int id, String title, LocalDate date, int priority, boolean completed) {
 		this.id = id;
-		setTitle(title);
-		setDate(date);
-		setPriority(priority);
-		setCompleted(completed);
+		this.title = title;
+		this.epochDay = toEpochDay(date);
+		this.priority = priority;
+		this.completed = completed;
+	}
+
+	private static int toEpochDay(LocalDate date) {
+		return date == null ? NO_DATE : Math.toIntExact(date.toEpochDay());
+	}
+
+	public void addFieldListener(FieldListener listener) {
+		listeners = Arrays.copyOf(listeners, listeners.length + 1);
+		listeners[listeners.length - 1] = listener;
+	}
+
+	public void removeFieldListener(FieldListener listener) {
+		for (int i = 0; i < listeners.length; i++) {
+			if (listeners[i] == listener) {
+				var newListeners = new FieldListener[listeners.length - 1];
+				System.arraycopy(listeners, 0, newListeners, 0, i);
+				System.arraycopy(listeners, i + 1, newListeners, i, listeners.length - i - 1);
+				listeners = newListeners;
+				return;
+			}
+		}
+	}
+
+	private void fireChanged(String fieldName, Object oldValue, Object newValue) {
+		for (var listener : listeners) {
+			listener.changed(this, fieldName, oldValue, newValue);
+		}
 	}
 
 	// id is read-only
+	// except that a temporary id is replaced when the server has created the ToDo
+	public ReadOnlyIntegerProperty idProperty() {
+		if (idProperty == null) {
+			idProperty = new SimpleIntegerProperty(this, "id", id);
+		}
+		return idProperty;
+	}
+
 	public int getId() {
 		return id;
 	}
 
+	void setId(int id) {
+		this.id = id;
+		if (idProperty != null) {
+			idProperty.set(id);
+		}
+	}
+
 	// Title
 	public StringProperty titleProperty() {
-		return title;
+		if (titleProperty == null) {
+			titleProperty = new SimpleStringProperty(this, TITLE, title) {
+				@Override
+				protected void invalidated() {
+					updateTitle(get());
+				}
+			};
+		}
+		return titleProperty;
 	}
 
 	public String getTitle() {
-		return title.get();
+		return title;
 	}
 
 	public void setTitle(String title) {
-		this.title.set(title);
+		if (titleProperty != null) {
+			titleProperty.set(title);
+		} else {
+			updateTitle(title);
+		}
+	}
+
+	private void updateTitle(String newTitle) {
+		var oldTitle = title;
+		title = newTitle;
+		if (!Objects.equals(oldTitle, newTitle)) {
+			fireChanged(TITLE, oldTitle, newTitle);
+		}
 	}
 
 	// Date
 	public ObjectProperty<LocalDate> dateProperty() {
-		return date;
+		if (dateProperty == null) {
+			dateProperty = new SimpleObjectProperty<>(this, DATE, getDate()) {
+				@Override
+				protected void invalidated() {
+					updateDate(get());
+				}
+			};
+		}
+		return dateProperty;
 	}
 
 	public LocalDate getDate() {
-		return date.get();
+		return epochDay == NO_DATE ? null : LocalDate.ofEpochDay(epochDay);
 	}
 
 	public void setDate(LocalDate localDate) {
-		this.date.set(localDate);
+		if (dateProperty != null) {
+			dateProperty.set(localDate);
+		} else {
+			updateDate(localDate);
+		}
 	}
-	
+
+	private void updateDate(LocalDate newDate) {
+		var oldDate = getDate();
+		epochDay = toEpochDay(newDate);
+		if (!Objects.equals(oldDate, newDate)) {
+			fireChanged(DATE, oldDate, newDate);
+		}
+	}
+
 	// Priority
 	public ObjectProperty<Integer> priorityProperty() {
-		return priority;
+		if (priorityProperty == null) {
+			priorityProperty = new SimpleObjectProperty<>(this, PRIORITY, priority) {
+				@Override
+				protected void invalidated() {
+					// A cleared choice keeps the last priority
+					if (get() != null) {
+						updatePriority(get());
+					}
+				}
+			};
+		}
+		return priorityProperty;
 	}
 
 	public int getPriority() {
-		return priority.get();
+		return priority;
 	}
-	
+
 	public void setPriority(int priority) {
-		this.priority.set(priority);
+		if (priorityProperty != null) {
+			priorityProperty.set(priority);
+		} else {
+			updatePriority(priority);
+		}
+	}
+
+	private void updatePriority(int newPriority) {
+		int oldPriority = priority;
+		priority = newPriority;
+		if (oldPriority != newPriority) {
+			fireChanged(PRIORITY, oldPriority, newPriority);
+		}
 	}
-	
+
 	// Completed
 	public BooleanProperty completedProperty() {
-		return completed;
+		if (completedProperty == null) {
+			completedProperty = new SimpleBooleanProperty(this, COMPLETED, completed) {
+				@Override
+				protected void invalidated() {
+					updateCompleted(get());
+				}
+			};
+		}
+		return completedProperty;
 	}
 
 	public boolean isCompleted() {
-		return completed.get();
+		return completed;
 	}
 
 	public void setCompleted(boolean completed) {
-		this.completed.set(completed);
+		if (completedProperty != null) {
+			completedProperty.set(completed);
+		} else {
+			updateCompleted(completed);
+		}
+	}
+
+	private void updateCompleted(boolean newCompleted) {
+		boolean oldCompleted = completed;
+		completed = newCompleted;
+		if (oldCompleted != newCompleted) {
+			fireChanged(COMPLETED, oldCompleted, newCompleted);
+		}
 	}
 }
@@ -0,0 +1,67 @@
+package com.example.model;
+
+import java.io.IOException;
+import java.time.LocalDate;
+
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+/**
+ * Reads and writes a ToDo token by token.
+ * ToDo keeps its values in plain fields, which do not match the JSON names and types.
+ * Unknown names are skipped.
+ */
+public class ToDoAdapter extends TypeAdapter<ToDo> {
+	private final LocalDateAdapter dateAdapter = new LocalDateAdapter();
+
+	@Override
+	public void write(JsonWriter out, ToDo todo) throws IOException {
+		if (todo == null) {
+			out.nullValue();
+			return;
+		}
+		out.beginObject();
+		out.name("id").value(todo.getId());
+		out.name(ToDo.TITLE).value(todo.getTitle());
+		out.name(ToDo.DATE);
+		dateAdapter.write(out, todo.getDate());
+		out.name(ToDo.PRIORITY).value(todo.getPriority());
+		out.name(ToDo.COMPLETED).value(todo.isCompleted());
+		out.endObject();
+	}
+
+	@Override
+	public ToDo read(JsonReader in) throws IOException {
+		if (in.peek() == JsonToken.NULL) {
+			in.nextNull();
+			return null;
+		}
+		int id = 0;
+		String title = null;
+		LocalDate date = null;
+		int priority = 0;
+		boolean completed = false;
+
+		in.beginObject();
+		while (in.hasNext()) {
+			var name = in.nextName();
+			if (in.peek() == JsonToken.NULL) {
+				in.nextNull();
+				continue;
+			}
+			switch (name) {
+				case "id" -> id = in.nextInt();
+				case ToDo.TITLE -> title = in.nextString();
+				case ToDo.DATE -> date = dateAdapter.read(in);
+				case ToDo.PRIORITY -> priority = in.nextInt();
+				case ToDo.COMPLETED -> completed = in.nextBoolean();
+				default -> in.skipValue();
+			}
+		}
+		in.endObject();
+		// The constructor sets the fields directly, so no listener is involved
+		return new ToDo(id, title, date, priority, completed);
+	}
+}
@@ -0,0 +1,149 @@
+package com.example.model;
+
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+
+import javafx.collections.ListChangeListener;
+import javafx.collections.ObservableList;
+
+/**
+ * ToDos by date, keyed by epoch day, for range queries such as overdue or this week.
+ * ToDos without a date are not indexed.
+ * The index follows additions and removals of the source list and date changes of each ToDo.
+ */
+public class ToDoDateIndex {
+	private final NavigableMap<Long, Set<ToDo>> todosByDay = new TreeMap<>();
+	// Day under which each ToDo is indexed, keyed by identity
+	private final Map<ToDo, Long> days = new HashMap<>();
+	private final ToDo.FieldListener dateListener = (todo, fieldName, oldValue, newValue) -> {
+		if (fieldName.equals(ToDo.DATE)) {
+			move(todo);
+		}
+	};
+
+	/**
+	 * Days from from to to, both inclusive. A null bound is open.
+	 */
+	public record DateRange(LocalDate from, LocalDate to) {
+		public static final DateRange ALL = new DateRange(null, null);
+
+		// Before today
+		public static DateRange overdue(LocalDate today) {
+			return new DateRange(null, today.minusDays(1));
+		}
+
+		public static DateRange day(LocalDate day) {
+			return new DateRange(day, day);
+		}
+
+		// Today and the next 6 days
+		public static DateRange week(LocalDate today) {
+			return new DateRange(today, today.plusDays(6));
+		}
+
+		public boolean isAll() {
+			return from == null && to == null;
+		}
+
+		public boolean contains(LocalDate date) {
+			return date != null && (from == null || !date.isBefore(from)) && (to == null || !date.isAfter(to));
+		}
+	}
+
+	public ToDoDateIndex(ObservableList<ToDo> source) {
+		source.addListener((ListChangeListener<ToDo>) change -> {
+			while (change.next()) {
+				if (change.wasPermutated()) {
+					continue;
+				}
+				change.getRemoved().forEach(this::removeToDo);
+				change.getAddedSubList().forEach(this::addToDo);
+			}
+		});
+		source.forEach(this::addToDo);
+	}
+
+	private void addToDo(ToDo todo) {
+		if (days.containsKey(todo)) {
+			return;
+		}
+		todo.addFieldListener(dateListener);
+		// A ToDo without a date is tracked with a null day, so that a later date is indexed
+		days.put(todo, null);
+		index(todo);
+	}
+
+	private void removeToDo(ToDo todo) {
+		if (!days.containsKey(todo)) {
+			return;
+		}
+		unindex(todo);
+		days.remove(todo);
+		todo.removeFieldListener(dateListener);
+	}
+
+	private void move(ToDo todo) {
+		if (!days.containsKey(todo)) {
+			return;
+		}
+		unindex(todo);
+		index(todo);
+	}
+
+	private void index(ToDo todo) {
+		var date = todo.getDate();
+		if (date == null) {
+			return;
+		}
+		long day = date.toEpochDay();
+		days.put(todo, day);
+		todosByDay.computeIfAbsent(day, key -> new HashSet<>(4)).add(todo);
+	}
+
+	private void unindex(ToDo todo) {
+		var day = days.put(todo, null);
+		if (day == null) {
+			return;
+		}
+		var todos = todosByDay.get(day);
+		if (todos != null && todos.remove(todo) && todos.isEmpty()) {
+			todosByDay.remove(day);
+		}
+	}
+
+	private NavigableMap<Long, Set<ToDo>> days(DateRange range) {
+		if (range.from() == null && range.to() == null) {
+			return todosByDay;
+		}
+		if (range.from() == null) {
+			return todosByDay.headMap(range.to().toEpochDay(), true);
+		}
+		if (range.to() == null) {
+			return todosByDay.tailMap(range.from().toEpochDay(), true);
+		}
+		if (range.from().isAfter(range.to())) {
+			return new TreeMap<>();
+		}
+		return todosByDay.subMap(range.from().toEpochDay(), true, range.to().toEpochDay(), true);
+	}
+
+	// ToDos with a date in range, found in O(log n + k)
+	public Set<ToDo> between(DateRange range) {
+		Set<ToDo> result = new HashSet<>();
+		days(range).values().forEach(result::addAll);
+		return result;
+	}
+
+	public int count(DateRange range) {
+		int count = 0;
+		for (var todos : days(range).values()) {
+			count += todos.size();
+		}
+		return count;
+	}
+}
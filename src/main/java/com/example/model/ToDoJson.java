@@ -0,0 +1,239 @@
+package com.example.model;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.hildan.fxgson.FxGson;
+
+import com.google.gson.Gson;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+/**
+ * JSON bodies exchanged with the ToDo server.
+ * Each of them is written and read token by token by a TypeAdapter, without JsonElement trees or reflection.
+ */
+final class ToDoJson {
+	record GetResult(List<ToDo> todos, String error) {}
+
+	record PostParams(String title, LocalDate date, int priority, boolean completed) {}
+
+	record PostResult(ToDo todo, String error) {}
+
+	record TitleParam(String title) {}
+
+	record DateParam(String date) {}
+
+	record PriorityParam(int priority) {}
+
+	record CompletedParam(boolean completed) {}
+
+	private ToDoJson() {
+	}
+
+	static Gson createGson() {
+		var toDoAdapter = new ToDoAdapter();
+		var dateAdapter = new LocalDateAdapter();
+		return FxGson.coreBuilder()
+				.registerTypeAdapter(LocalDate.class, dateAdapter)
+				.registerTypeAdapter(ToDo.class, toDoAdapter)
+				.registerTypeAdapter(GetResult.class, new GetResultAdapter(toDoAdapter))
+				.registerTypeAdapter(PostResult.class, new PostResultAdapter(toDoAdapter))
+				.registerTypeAdapter(PostParams.class, new PostParamsAdapter(dateAdapter))
+				.registerTypeAdapter(TitleParam.class, new ParamAdapter<TitleParam>(ToDo.TITLE,
+						(out, param) -> out.value(param.title()), in -> new TitleParam(nextStringOrNull(in))))
+				.registerTypeAdapter(DateParam.class, new ParamAdapter<DateParam>(ToDo.DATE,
+						(out, param) -> out.value(param.date()), in -> new DateParam(nextStringOrNull(in))))
+				.registerTypeAdapter(PriorityParam.class, new ParamAdapter<PriorityParam>(ToDo.PRIORITY,
+						(out, param) -> out.value(param.priority()), in -> new PriorityParam(in.nextInt())))
+				.registerTypeAdapter(CompletedParam.class, new ParamAdapter<CompletedParam>(ToDo.COMPLETED,
+						(out, param) -> out.value(param.completed()), in -> new CompletedParam(in.nextBoolean())))
+				.create();
+	}
+
+	private static String nextStringOrNull(JsonReader in) throws IOException {
+		if (in.peek() == JsonToken.NULL) {
+			in.nextNull();
+			return null;
+		}
+		return in.nextString();
+	}
+
+	// {"todos": [...], "error": "..."}
+	private static class GetResultAdapter extends TypeAdapter<GetResult> {
+		private final ToDoAdapter toDoAdapter;
+
+		GetResultAdapter(ToDoAdapter toDoAdapter) {
+			this.toDoAdapter = toDoAdapter;
+		}
+
+		@Override
+		public void write(JsonWriter out, GetResult result) throws IOException {
+			out.beginObject();
+			out.name("todos");
+			if (result.todos() == null) {
+				out.nullValue();
+			} else {
+				out.beginArray();
+				for (var todo : result.todos()) {
+					toDoAdapter.write(out, todo);
+				}
+				out.endArray();
+			}
+			out.name("error").value(result.error());
+			out.endObject();
+		}
+
+		@Override
+		public GetResult read(JsonReader in) throws IOException {
+			List<ToDo> todos = null;
+			String error = null;
+			in.beginObject();
+			while (in.hasNext()) {
+				switch (in.nextName()) {
+					case "todos" -> {
+						if (in.peek() == JsonToken.NULL) {
+							in.nextNull();
+							break;
+						}
+						todos = new ArrayList<>();
+						in.beginArray();
+						while (in.hasNext()) {
+							todos.add(toDoAdapter.read(in));
+						}
+						in.endArray();
+					}
+					case "error" -> error = nextStringOrNull(in);
+					default -> in.skipValue();
+				}
+			}
+			in.endObject();
+			return new GetResult(todos, error);
+		}
+	}
+
+	// {"todo": {...}, "error": "..."}
+	private static class PostResultAdapter extends TypeAdapter<PostResult> {
+		private final ToDoAdapter toDoAdapter;
+
+		PostResultAdapter(ToDoAdapter toDoAdapter) {
+			this.toDoAdapter = toDoAdapter;
+		}
+
+		@Override
+		public void write(JsonWriter out, PostResult result) throws IOException {
+			out.beginObject();
+			out.name("todo");
+			toDoAdapter.write(out, result.todo());
+			out.name("error").value(result.error());
+			out.endObject();
+		}
+
+		@Override
+		public PostResult read(JsonReader in) throws IOException {
+			ToDo todo = null;
+			String error = null;
+			in.beginObject();
+			while (in.hasNext()) {
+				switch (in.nextName()) {
+					case "todo" -> todo = toDoAdapter.read(in);
+					case "error" -> error = nextStringOrNull(in);
+					default -> in.skipValue();
+				}
+			}
+			in.endObject();
+			return new PostResult(todo, error);
+		}
+	}
+
+	// Body of POST /todos
+	private static class PostParamsAdapter extends TypeAdapter<PostParams> {
+		private final LocalDateAdapter dateAdapter;
+
+		PostParamsAdapter(LocalDateAdapter dateAdapter) {
+			this.dateAdapter = dateAdapter;
+		}
+
+		@Override
+		public void write(JsonWriter out, PostParams params) throws IOException {
+			out.beginObject();
+			out.name(ToDo.TITLE).value(params.title());
+			out.name(ToDo.DATE);
+			dateAdapter.write(out, params.date());
+			out.name(ToDo.PRIORITY).value(params.priority());
+			out.name(ToDo.COMPLETED).value(params.completed());
+			out.endObject();
+		}
+
+		@Override
+		public PostParams read(JsonReader in) throws IOException {
+			String title = null;
+			LocalDate date = null;
+			int priority = 0;
+			boolean completed = false;
+			in.beginObject();
+			while (in.hasNext()) {
+				switch (in.nextName()) {
+					case ToDo.TITLE -> title = nextStringOrNull(in);
+					case ToDo.DATE -> date = dateAdapter.read(in);
+					case ToDo.PRIORITY -> priority = in.nextInt();
+					case ToDo.COMPLETED -> completed = in.nextBoolean();
+					default -> in.skipValue();
+				}
+			}
+			in.endObject();
+			return new PostParams(title, date, priority, completed);
+		}
+	}
+
+	@FunctionalInterface
+	private interface ValueWriter<T> {
+		void write(JsonWriter out, T param) throws IOException;
+	}
+
+	@FunctionalInterface
+	private interface ValueReader<T> {
+		T read(JsonReader in) throws IOException;
+	}
+
+	// {"<name>": value} of a parameter of PUT /todos/{id}/{name}
+	private static class ParamAdapter<T> extends TypeAdapter<T> {
+		private final String name;
+		private final ValueWriter<T> valueWriter;
+		private final ValueReader<T> valueReader;
+
+		ParamAdapter(String name, ValueWriter<T> valueWriter, ValueReader<T> valueReader) {
+			this.name = name;
+			this.valueWriter = valueWriter;
+			this.valueReader = valueReader;
+		}
+
+		@Override
+		public void write(JsonWriter out, T param) throws IOException {
+			out.beginObject();
+			out.name(name);
+			valueWriter.write(out, param);
+			out.endObject();
+		}
+
+		// null if the object has no value of the parameter
+		@Override
+		public T read(JsonReader in) throws IOException {
+			T param = null;
+			in.beginObject();
+			while (in.hasNext()) {
+				if (in.nextName().equals(name)) {
+					param = valueReader.read(in);
+				} else {
+					in.skipValue();
+				}
+			}
+			in.endObject();
+			return param;
+		}
+	}
+}
@@ -1,21 +1,137 @@
 package com.example.model;
 
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.logging.Logger;
 
 import com.example.exceptions.ToDoServiceException;
 
 import javafx.beans.property.ListProperty;
 import javafx.beans.property.SimpleListProperty;
 import javafx.collections.FXCollections;
+import javafx.collections.ListChangeListener;
+import javafx.collections.ObservableList;
+import javafx.collections.transformation.FilteredList;
+import javafx.util.Duration;
 
 public class ToDoManager {
+	private final Logger logger = Logger.getLogger(ToDoManager.class.getName());
 	private final ListProperty<ToDo> todos = new SimpleListProperty<>(FXCollections.observableArrayList());
+	private final SortedToDoIndex sortedTodos = new SortedToDoIndex(todos);
+	private final ToDoSearchIndex searchIndex = new ToDoSearchIndex(todos);
+	private final ToDoDateIndex dateIndex = new ToDoDateIndex(todos);
+	// sortedTodos restricted by setFilter
+	private final FilteredList<ToDo> filteredTodos = new FilteredList<>(sortedTodos);
+	private final Map<Integer, ToDo> todosById = new HashMap<>();
+	// Operations that wait for the server to be reachable again
+	private final OfflineJournal journal = new OfflineJournal(this::replaceTemporaryId);
+	private final WriteBehindQueue writeBehindQueue = new WriteBehindQueue(Settings.getInstance().getFlushSize(),
+			Duration.millis(Settings.getInstance().getFlushIntervalMillis()), this::rollback, this::journalUpdates);
+	// Typing in a title field changes titleProperty on every keystroke.
+	// Errors are handled by writeBehindQueue.
+	private final DebouncedUpdater<String> titleUpdater = new DebouncedUpdater<>(Duration.millis(500),
+			(id, title, oldTitle) -> sendUpdate(id, ToDo.TITLE, title, oldTitle), e -> {});
+	// Snapshots are written one at a time in the order they are taken
+	private final ExecutorService snapshotExecutor = Executors.newSingleThreadExecutor(runnable -> {
+		var thread = new Thread(runnable, "snapshot-writer");
+		thread.setDaemon(true);
+		return thread;
+	});
+	// ToDos shown before the server has created them, by temporary id
+	private final Map<Integer, PendingCreate> pendingCreates = new HashMap<>();
+	// Changes made by other clients
+	private final ChangeFeed changeFeed = new ChangeFeed(this::applyChanges);
+	// Changes received while loadInitialData runs are applied when it has finished,
+	// otherwise an older state in the list could overwrite them
+	private final List<ChangeFeed.Event> deferredChanges = new ArrayList<>();
+	private int loadsInProgress = 0;
+	// Account whose ToDos are in the list
+	private OfflineJournal.Account listAccount;
+	// Changes applied from the server or by a rollback must not be sent to the server
+	private boolean suppressUpdates = false;
+	// One listener for all ToDos
+	private final ToDo.FieldListener fieldListener = (todo, fieldName, oldValue, newValue) -> {
+		if (suppressUpdates)
+			return;
+		if (fieldName.equals(ToDo.TITLE)) {
+			titleUpdater.submit(todo.getId(), (String) newValue, (String) oldValue);
+		} else {
+			sendUpdate(todo.getId(), fieldName, newValue, oldValue);
+		}
+	};
+
+	// Changes made to a ToDo while its create request is in flight
+	private static class PendingCreate {
+		// Latest value of each changed field, sent with the server id
+		private final Map<String, Object> changes = new LinkedHashMap<>();
+		// Value of each changed field before its first change, for a rollback
+		private final Map<String, Object> oldValues = new HashMap<>();
+		// Deleted with the server id
+		private boolean removed = false;
+		// Dropped with the list of its account, its outcome is ignored
+		private boolean dropped = false;
+	}
 
 	public ListProperty<ToDo> todosProperty() {
 		return todos;
 	}
 
+	// todos sorted by completed, date and id
+	public ObservableList<ToDo> sortedTodos() {
+		return sortedTodos;
+	}
+
+	// sortedTodos matching the filter
+	public ObservableList<ToDo> filteredTodos() {
+		return filteredTodos;
+	}
+
+	/**
+	 * Shows only ToDos whose title matches query, see ToDoSearchIndex.search, and whose date is in range.
+	 * priority is null for all priorities.
+	 * A row matching when the filter is set stays visible while it is edited.
+	 * Other rows, e.g. those added later, are checked against their current title and date.
+	 */
+	public void setFilter(String query, boolean hideCompleted, Integer priority, ToDoDateIndex.DateRange range) {
+		long start = System.nanoTime();
+		var matches = searchIndex.search(query);
+		var matcher = searchIndex.matcher(query);
+		var inRange = range.isAll() ? null : dateIndex.between(range);
+		if (matches == null && inRange == null && !hideCompleted && priority == null) {
+			filteredTodos.setPredicate(null);
+		} else {
+			filteredTodos.setPredicate(todo -> (matches == null || matches.contains(todo) || matcher.test(todo))
+					&& (inRange == null || inRange.contains(todo) || range.contains(todo.getDate()))
+					&& !(hideCompleted && todo.isCompleted())
+					&& (priority == null || todo.getPriority() == priority));
+		}
+		Metrics.getInstance().operation("ui setFilter").recordSince(start, false);
+	}
+
+	// Number of ToDos with a date in range, e.g. for the label of a view
+	public int count(ToDoDateIndex.DateRange range) {
+		return dateIndex.count(range);
+	}
+
 	private ToDoManager() {
+		todos.addListener((ListChangeListener<ToDo>) change -> {
+			while (change.next()) {
+				change.getRemoved().forEach(todo -> todosById.remove(todo.getId()));
+				change.getAddedSubList().forEach(todo -> todosById.put(todo.getId(), todo));
+			}
+		});
 	}
 
 	private static class SingletonHolder {
@@ -29,71 +145,368 @@ public class ToDoManager {
 		return SingletonHolder.singleton;
 	}
 
-	public void remove(ToDo todo) throws ToDoServiceException {
-		ToDoService.getInstance().delete(todo.getId());
+	private static boolean isOffline(Throwable e) {
+		var cause = e instanceof CompletionException ? e.getCause() : e;
+		return cause instanceof ToDoServiceException tdse && tdse.getType() == ToDoServiceException.Type.IO_ERROR;
+	}
+
+	/*
+	 * All methods return futures that complete on the JavaFX Application Thread.
+	 * While the server is unreachable, operations are applied locally and kept in the journal.
+	 */
+	public CompletableFuture<Void> remove(ToDo todo) {
+		titleUpdater.cancel(todo.getId());
+		writeBehindQueue.cancel(todo.getId());
+		if (markRemovedIfPending(todo)) {
+			todos.remove(todo);
+			return CompletableFuture.completedFuture(null);
+		}
+		if (journal.hasPending()) {
+			removeOffline(todo);
+			return CompletableFuture.completedFuture(null);
+		}
+		return ToDoService.getInstance().deleteAsync(todo.getId())
+				.thenRun(() -> todos.remove(todo))
+				.exceptionallyCompose(e -> {
+					if (!isOffline(e)) {
+						return CompletableFuture.failedFuture(e);
+					}
+					removeOffline(todo);
+					return CompletableFuture.completedFuture(null);
+				});
+	}
+
+	private void removeOffline(ToDo todo) {
+		journal.appendDelete(todo.getId());
 		todos.remove(todo);
 	}
 
-	public void clear() throws ToDoServiceException {
-		ToDoService.getInstance().deleteAll();
+	public CompletableFuture<Void> clear() {
+		titleUpdater.cancelAll();
+		writeBehindQueue.cancelAll();
+		// Their create may complete after the deletion
+		pendingCreates.values().forEach(pendingCreate -> pendingCreate.removed = true);
+		if (journal.hasPending()) {
+			clearOffline();
+			return CompletableFuture.completedFuture(null);
+		}
+		return ToDoService.getInstance().deleteAllAsync()
+				.thenRun(() -> todos.clear())
+				.exceptionallyCompose(e -> {
+					if (!isOffline(e)) {
+						return CompletableFuture.failedFuture(e);
+					}
+					clearOffline();
+					return CompletableFuture.completedFuture(null);
+				});
+	}
+
+	private void clearOffline() {
+		journal.appendDeleteAll();
 		todos.clear();
 	}
 
-	private void addListener(ToDo todo) {
-		todo.titleProperty().addListener((observable, oldValue, newValue) -> {
-			try {
-				ToDoService.getInstance().updateTitle(todo.getId(), newValue);
-			} catch (Exception e) {
-				try {
-					// Reset to the oldValue
-					// This is a workaround because reset binded property is difficult.
-					ToDoManager.getInstance().loadInitialData();
-				} catch (ToDoServiceException ex) {
-					ex.printStackTrace();
-				}
+	// Sets a field without sending it to the server
+	private void setField(ToDo todo, String fieldName, Object value) {
+		suppressUpdates = true;
+		try {
+			switch (fieldName) {
+				case ToDo.TITLE -> todo.setTitle((String) value);
+				case ToDo.DATE -> todo.setDate((LocalDate) value);
+				case ToDo.PRIORITY -> todo.setPriority((Integer) value);
+				case ToDo.COMPLETED -> todo.setCompleted((Boolean) value);
+				default -> throw new IllegalArgumentException("Unknown field: " + fieldName);
 			}
-		});
+		} finally {
+			suppressUpdates = false;
+		}
+	}
 
-		todo.dateProperty().addListener((observable, oldValue, newValue) -> {
-			try {
-				ToDoService.getInstance().updateDate(todo.getId(), newValue);
-			} catch (Exception e) {				
-				try {
-					ToDoManager.getInstance().loadInitialData();					
-				} catch (ToDoServiceException ex) {
-					ex.printStackTrace();
-				}
+	private static Object getField(ToDo todo, String fieldName) {
+		return switch (fieldName) {
+			case ToDo.TITLE -> todo.getTitle();
+			case ToDo.DATE -> todo.getDate();
+			case ToDo.PRIORITY -> todo.getPriority();
+			case ToDo.COMPLETED -> todo.isCompleted();
+			default -> throw new IllegalArgumentException("Unknown field: " + fieldName);
+		};
+	}
+
+	// Reset only the field whose update has failed
+	private void rollback(int id, String fieldName, Object oldValue) {
+		var todo = todosById.get(id);
+		if (todo == null) {
+			return;
+		}
+		if (fieldName.equals(ToDo.TITLE)) {
+			titleUpdater.cancel(id);
+		}
+		logger.warning("rollback: " + fieldName + " of ToDo " + id);
+		setField(todo, fieldName, oldValue);
+	}
+
+	private CompletableFuture<Void> sendUpdate(int id, String fieldName, Object value, Object oldValue) {
+		// A ToDo without server id is updated when its create has completed
+		var pendingCreate = pendingCreates.get(id);
+		if (pendingCreate != null) {
+			pendingCreate.changes.put(fieldName, value);
+			pendingCreate.oldValues.putIfAbsent(fieldName, oldValue);
+			return CompletableFuture.completedFuture(null);
+		}
+		// Keep the order of operations while the journal has operations to replay
+		if (journal.hasPending()) {
+			journal.appendUpdate(id, fieldName, value);
+			return CompletableFuture.completedFuture(null);
+		}
+		return writeBehindQueue.enqueue(journal.resolve(id), fieldName, value, oldValue);
+	}
+
+	// Called by writeBehindQueue when the server is unreachable
+	private void journalUpdates(Map<Integer, Map<String, Object>> changes) {
+		logger.warning("The server is unreachable. Changes are kept in the journal.");
+		changes.forEach((id, fields) -> fields.forEach((fieldName, value) -> {
+			journal.appendUpdate(id, fieldName, value);
+		}));
+	}
+
+	// Called when a ToDo with a temporary id has been created on the server, e.g. by the journal
+	private void replaceTemporaryId(int temporaryId, ToDo serverToDo) {
+		var todo = todosById.remove(temporaryId);
+		if (todo != null) {
+			// The copy added by the change feed is dropped
+			var feedToDo = todosById.get(serverToDo.getId());
+			if (feedToDo != null) {
+				todos.remove(feedToDo);
 			}
-		});
+			todo.setId(serverToDo.getId());
+			todosById.put(todo.getId(), todo);
+			sortedTodos.idChanged(todo);
+		}
+	}
 
-		todo.priorityProperty().addListener((observable, oldValue, newValue) -> {
-			try {
-				ToDoService.getInstance().updatePriority(todo.getId(), newValue);
-			} catch (Exception e) {
-				try {
-					ToDoManager.getInstance().loadInitialData();
-				} catch (ToDoServiceException ex) {
-					ex.printStackTrace();
+	// Applies the operations recovered from the journal on top of the snapshot
+	private void applyJournal() {
+		for (var op : journal.pendingOperations()) {
+			var todo = todosById.get(journal.resolve(op.id()));
+			if (todo == null) {
+				todo = todosById.get(op.id());
+			}
+			switch (op.type()) {
+				case OfflineJournal.CREATE -> {
+					if (todo == null) {
+						var newToDo = new ToDo(op.id(), op.title(), op.localDate(), op.priority(), op.completed());
+						addNewToDo(newToDo);
+					}
+				}
+				case OfflineJournal.UPDATE -> {
+					if (todo != null) {
+						setField(todo, op.field(), op.typedValue());
+					}
 				}
+				case OfflineJournal.DELETE -> {
+					if (todo != null) {
+						todos.remove(todo);
+					}
+				}
+				case OfflineJournal.DELETE_ALL -> todos.clear();
 			}
-		});
+		}
+	}
 
-		todo.completedProperty().addListener((observable, oldValue, newValue) -> {
-			try {
-				ToDoService.getInstance().updateCompleted(todo.getId(), newValue);
-			} catch (Exception e) {
-				try {
-					ToDoManager.getInstance().loadInitialData();
-				} catch (ToDoServiceException ex) {
-					ex.printStackTrace();
-				}
+	/*
+	 * Bulk operations
+	 * Local changes are applied to the list in one batch. The requests are sent by a BulkOperation,
+	 * at most Settings.bulkMaxInFlight at a time, and the outcome is applied before its result completes.
+	 */
+
+	/**
+	 * Sets one field of many ToDos, e.g. completes them. ToDos which already have value are skipped.
+	 * Failed updates are rolled back. While the server is unreachable, updates are kept in the journal
+	 * and count as succeeded.
+	 */
+	public BulkOperation<ToDo> updateAll(Collection<ToDo> selected, String fieldName, Object value) {
+		var service = ToDoService.getInstance();
+		Map<ToDo, Object> oldValues = new LinkedHashMap<>();
+		for (var todo : selected) {
+			var oldValue = getField(todo, fieldName);
+			if (!Objects.equals(oldValue, value)) {
+				oldValues.put(todo, oldValue);
 			}
+		}
+		sortedTodos.batch(() -> oldValues.keySet().forEach(todo -> setField(todo, fieldName, value)));
+
+		var operation = new BulkOperation<ToDo>(oldValues.keySet(), Settings.getInstance().getBulkMaxInFlight(),
+				todo -> {
+					if (pendingCreates.containsKey(todo.getId())) {
+						return sendUpdate(todo.getId(), fieldName, value, oldValues.get(todo));
+					}
+					if (journal.hasPending()) {
+						journal.appendUpdate(todo.getId(), fieldName, value);
+						return CompletableFuture.completedFuture(null);
+					}
+					int id = journal.resolve(todo.getId());
+					var future = switch (fieldName) {
+						case ToDo.TITLE -> service.updateTitleAsync(id, (String) value);
+						case ToDo.DATE -> service.updateDateAsync(id, (LocalDate) value);
+						case ToDo.PRIORITY -> service.updatePriorityAsync(id, (Integer) value);
+						case ToDo.COMPLETED -> service.updateCompletedAsync(id, (Boolean) value);
+						default -> throw new IllegalArgumentException("Unknown field: " + fieldName);
+					};
+					return future.exceptionallyCompose(e -> {
+						if (!isOffline(e)) {
+							return CompletableFuture.failedFuture(e);
+						}
+						journal.appendUpdate(todo.getId(), fieldName, value);
+						return CompletableFuture.completedFuture(null);
+					});
+				},
+				finished -> {
+					var rollbacks = finished.getFailures().keySet();
+					if (!rollbacks.isEmpty()) {
+						logger.warning("updateAll: rollback " + fieldName + " of " + rollbacks.size() + " ToDos");
+						sortedTodos.batch(() -> rollbacks.forEach(todo -> setField(todo, fieldName, oldValues.get(todo))));
+					}
+				});
+		// Queued changes are sent first, so that they do not overwrite the new values on the server
+		writeBehindQueue.flush().handle((v, e) -> operation.start());
+		return operation;
+	}
+
+	/**
+	 * Deletes many ToDos. They are removed from the list at once when all requests have finished.
+	 * While the server is unreachable, deletions are kept in the journal and count as succeeded.
+	 */
+	public BulkOperation<ToDo> removeAll(Collection<ToDo> selected) {
+		var service = ToDoService.getInstance();
+		selected.forEach(todo -> {
+			titleUpdater.cancel(todo.getId());
+			writeBehindQueue.cancel(todo.getId());
 		});
+		return new BulkOperation<ToDo>(selected, Settings.getInstance().getBulkMaxInFlight(),
+				todo -> {
+					if (markRemovedIfPending(todo)) {
+						return CompletableFuture.completedFuture(null);
+					}
+					if (journal.hasPending()) {
+						journal.appendDelete(todo.getId());
+						return CompletableFuture.completedFuture(null);
+					}
+					return service.deleteAsync(todo.getId()).exceptionallyCompose(e -> {
+						if (!isOffline(e)) {
+							return CompletableFuture.failedFuture(e);
+						}
+						journal.appendDelete(todo.getId());
+						return CompletableFuture.completedFuture(null);
+					});
+				},
+				finished -> {
+					if (!finished.getSucceeded().isEmpty()) {
+						todos.removeAll(new HashSet<>(finished.getSucceeded()));
+					}
+				}).start();
+	}
+
+	private void addListener(ToDo todo) {
+		todo.addFieldListener(fieldListener);
 	}
 
-	public void create(String title, LocalDate date, int priority, boolean completed) throws ToDoServiceException {
-		var todo = ToDoService.getInstance().create(title, date, priority, completed);
+	// Send a pending title change at once, e.g. when the title field loses focus
+	public void flushTitle(ToDo todo) {
+		titleUpdater.flush(todo.getId());
+		writeBehindQueue.flush();
+	}
+
+	/**
+	 * Shows the new ToDo at once with a temporary id, which is replaced when the server has created it.
+	 * The returned future completes then. If the server rejects the ToDo, it is removed again.
+	 */
+	public CompletableFuture<Void> create(String title, LocalDate date, int priority, boolean completed) {
+		if (journal.hasPending()) {
+			createOffline(title, date, priority, completed);
+			return CompletableFuture.completedFuture(null);
+		}
+		int temporaryId = journal.newTemporaryId();
+		var todo = new ToDo(temporaryId, title, date, priority, completed);
+		var pendingCreate = new PendingCreate();
+		pendingCreates.put(temporaryId, pendingCreate);
 		addNewToDo(todo);
+		return ToDoService.getInstance().createAsync(title, date, priority, completed)
+				.thenAccept(serverToDo -> confirmCreate(todo, serverToDo, pendingCreate))
+				.exceptionallyCompose(e -> {
+					if (pendingCreate.dropped) {
+						return CompletableFuture.completedFuture(null);
+					}
+					// A pending title is sent by the journal or dropped with the ToDo
+					titleUpdater.flush(temporaryId);
+					titleUpdater.cancel(temporaryId);
+					pendingCreates.remove(temporaryId);
+					if (!isOffline(e)) {
+						todos.remove(todo);
+						return CompletableFuture.failedFuture(e);
+					}
+					// The current values include the changes made in the meantime
+					if (!pendingCreate.removed) {
+						journal.appendCreate(temporaryId, todo.getTitle(), todo.getDate(), todo.getPriority(),
+								todo.isCompleted());
+					}
+					return CompletableFuture.completedFuture(null);
+				});
+	}
+
+	// Gives todo its server id and sends the changes made while the create was in flight
+	private void confirmCreate(ToDo todo, ToDo serverToDo, PendingCreate pendingCreate) {
+		if (pendingCreate.dropped) {
+			return;
+		}
+		int temporaryId = todo.getId();
+		// A title being typed is added to the changes
+		titleUpdater.flush(temporaryId);
+		titleUpdater.cancel(temporaryId);
+		pendingCreates.remove(temporaryId);
+		if (pendingCreate.removed) {
+			var feedToDo = todosById.get(serverToDo.getId());
+			if (feedToDo != null) {
+				todos.remove(feedToDo);
+			}
+			deleteCreated(serverToDo.getId());
+			return;
+		}
+		replaceTemporaryId(temporaryId, serverToDo);
+		pendingCreate.changes.forEach((fieldName, value) -> sendUpdate(todo.getId(), fieldName, value,
+				pendingCreate.oldValues.get(fieldName)));
+	}
+
+	// Deletes a ToDo which was removed before the server had created it
+	private void deleteCreated(int id) {
+		if (journal.hasPending()) {
+			journal.appendDelete(id);
+			return;
+		}
+		ToDoService.getInstance().deleteAsync(id).exceptionally(e -> {
+			if (isOffline(e)) {
+				journal.appendDelete(id);
+			} else {
+				logger.warning("deleteCreated: " + id + ": " + e.getMessage());
+			}
+			return null;
+		});
+	}
+
+	// Returns true if todo waits for its create, which then deletes it
+	private boolean markRemovedIfPending(ToDo todo) {
+		var pendingCreate = pendingCreates.get(todo.getId());
+		if (pendingCreate == null) {
+			return false;
+		}
+		pendingCreate.removed = true;
+		return true;
+	}
+
+	// The ToDo has a temporary id until the journal is replayed
+	private void createOffline(String title, LocalDate date, int priority, boolean completed) {
+		int temporaryId = journal.newTemporaryId();
+		journal.appendCreate(temporaryId, title, date, priority, completed);
+		addNewToDo(new ToDo(temporaryId, title, date, priority, completed));
 	}
 
 	private void addNewToDo(ToDo todo) {
@@ -101,8 +514,237 @@ public class ToDoManager {
 		todos.add(todo);
 	}
 
-	public void loadInitialData() throws ToDoServiceException {
+	/**
+	 * Shows the local snapshot at once. Call loadInitialData afterwards to reconcile with the server.
+	 */
+	public void loadSnapshot() {
+		long start = System.nanoTime();
+		listAccount = OfflineJournal.Account.current();
+		var snapshot = ToDoSnapshot.load(listAccount.rootEndPoint(), listAccount.userName());
+		snapshot.forEach(todo -> addListener(todo));
+		todos.addAll(snapshot);
+		applyJournal();
+		logger.info("loadSnapshot: " + snapshot.size() + " todos in " + (System.nanoTime() - start) / 1_000_000 + " ms");
+	}
+
+	/**
+	 * Writes the current list to the local snapshot in the background.
+	 */
+	public CompletableFuture<Void> saveSnapshot() {
+		var rootEndPoint = listAccount.rootEndPoint();
+		var userName = listAccount.userName();
+		// A ToDo whose create is in flight is not kept, the next load gets it from the server
+		var entries = todos.stream().filter(todo -> !pendingCreates.containsKey(todo.getId()))
+				.map(ToDoSnapshot.Entry::of).toList();
+		return CompletableFuture.runAsync(() -> ToDoSnapshot.save(rootEndPoint, userName, entries), snapshotExecutor);
+	}
+
+	/**
+	 * Streams the list only when it has been modified on the server,
+	 * and applies the differences to todos chunk by chunk, so the first rows appear
+	 * before the whole list has arrived.
+	 * Afterwards, changes of other clients are applied as they arrive from the change feed.
+	 * After the account has changed, e.g. in Account Settings, the list is replaced with that of the new account.
+	 */
+	public CompletableFuture<Void> loadInitialData() {
+		var metrics = Metrics.getInstance().operation("loadInitialData");
+		long start = System.nanoTime();
+		Set<Integer> serverIds = new HashSet<>();
+		var account = OfflineJournal.Account.current();
+		if (listAccount != null && !listAccount.equals(account)) {
+			replaceAccount();
+		}
+		listAccount = account;
+		// Subscribed before the list is requested, so no change in between is missed.
+		// This also subscribes again with the current account.
+		loadsInProgress++;
+		changeFeed.start();
+		// Replay offline operations first, otherwise the server list would undo them
+		return journal.replay()
+				.thenCompose(v -> ToDoService.getInstance().getAllStreamingAsync(chunk -> applyServerChunk(chunk, serverIds)))
+				.thenAccept(modified -> {
+					if (modified) {
+						removeMissingOnServer(serverIds);
+						saveSnapshot();
+					}
+				})
+				.whenComplete((v, e) -> {
+					metrics.recordSince(start, e != null);
+					if (--loadsInProgress == 0 && !deferredChanges.isEmpty()) {
+						var changes = List.copyOf(deferredChanges);
+						deferredChanges.clear();
+						applyChanges(changes);
+					}
+				});
+	}
+
+	// Drops the ToDos of the previous account and its unsent changes, and shows the snapshot of the current one
+	private void replaceAccount() {
+		logger.info("replaceAccount: the account has changed, reload the list");
+		titleUpdater.cancelAll();
+		writeBehindQueue.cancelAll();
+		pendingCreates.values().forEach(pendingCreate -> pendingCreate.dropped = true);
+		pendingCreates.clear();
+		deferredChanges.clear();
 		todos.clear();
-		ToDoService.getInstance().getAll().forEach(todo -> addNewToDo(todo));
+		loadSnapshot();
+	}
+
+	/**
+	 * Applies changes from the change feed in one batch.
+	 * A ToDo with local changes that have not been sent is not updated,
+	 * because those changes come back as a newer event.
+	 */
+	private void applyChanges(List<ChangeFeed.Event> events) {
+		if (loadsInProgress > 0) {
+			deferredChanges.addAll(events);
+			return;
+		}
+		long start = System.nanoTime();
+		Map<Integer, ToDo> added = new LinkedHashMap<>();
+		Set<ToDo> removed = new HashSet<>();
+		suppressUpdates = true;
+		try {
+			sortedTodos.batch(() -> {
+				for (var event : events) {
+					switch (event.type()) {
+						case UPSERT -> {
+							var serverToDo = event.todo();
+							var todo = todosById.get(serverToDo.getId());
+							if (todo == null) {
+								added.put(serverToDo.getId(), serverToDo);
+							} else if (!titleUpdater.isPending(todo.getId())
+									&& !writeBehindQueue.isPending(todo.getId())) {
+								updateFromServer(todo, serverToDo);
+							}
+						}
+						case DELETE -> {
+							int id = event.todo().getId();
+							if (added.remove(id) == null && todosById.containsKey(id)) {
+								removed.add(todosById.get(id));
+							}
+						}
+						default -> {}
+					}
+				}
+			});
+		} finally {
+			suppressUpdates = false;
+		}
+
+		if (!removed.isEmpty()) {
+			removed.forEach(todo -> {
+				titleUpdater.cancel(todo.getId());
+				writeBehindQueue.cancel(todo.getId());
+			});
+			todos.removeAll(removed);
+		}
+		if (!added.isEmpty()) {
+			added.values().forEach(todo -> addListener(todo));
+			todos.addAll(added.values());
+		}
+		Metrics.getInstance().operation("ui applyChanges").recordSince(start, false);
+		if (events.stream().anyMatch(event -> event.type() == ChangeFeed.Type.RESET)) {
+			logger.info("applyChanges: the change feed was reset, reload the list");
+			loadInitialData().exceptionally(e -> {
+				logger.warning("applyChanges: " + e.getMessage());
+				return null;
+			});
+		}
+	}
+
+	/**
+	 * Inserts new ToDos and updates existing ones, matching ToDos by id.
+	 * Unchanged ToDos and their views are kept as they are, and so are ToDos with edits not yet saved.
+	 */
+	private void applyServerChunk(List<ToDo> chunk, Set<Integer> serverIds) {
+		long start = System.nanoTime();
+		List<ToDo> added = new ArrayList<>();
+		suppressUpdates = true;
+		try {
+			sortedTodos.batch(() -> {
+				for (var serverToDo : chunk) {
+					serverIds.add(serverToDo.getId());
+					var todo = todosById.get(serverToDo.getId());
+					if (todo == null) {
+						added.add(serverToDo);
+					} else if (!titleUpdater.isPending(todo.getId()) && !writeBehindQueue.isPending(todo.getId())) {
+						updateFromServer(todo, serverToDo);
+					}
+				}
+			});
+		} finally {
+			suppressUpdates = false;
+		}
+
+		if (!added.isEmpty()) {
+			added.forEach(todo -> addListener(todo));
+			todos.addAll(added);
+		}
+		Metrics.getInstance().operation("ui applyServerChunk").recordSince(start, false);
+	}
+
+	/**
+	 * Downloads only the ToDos with a date in range and applies them like loadInitialData.
+	 * Local ToDos in range which the server no longer has are removed.
+	 * While the journal has operations to replay, the full reload of loadInitialData is needed instead.
+	 */
+	public CompletableFuture<Void> refreshRange(ToDoDateIndex.DateRange range) {
+		if (journal.hasPending()) {
+			return CompletableFuture.completedFuture(null);
+		}
+		// Send local changes first, otherwise a ToDo moved into range locally would be removed.
+		// A failed change has been rolled back by then.
+		return writeBehindQueue.flush()
+				.handle((v, e) -> null)
+				.thenCompose(v -> ToDoService.getInstance().getRangeAsync(range))
+				.thenAccept(serverTodos -> {
+					Set<Integer> serverIds = new HashSet<>();
+					applyServerChunk(serverTodos == null ? List.of() : serverTodos, serverIds);
+					Set<ToDo> removed = new HashSet<>();
+					for (var todo : dateIndex.between(range)) {
+						if (!serverIds.contains(todo.getId()) && !pendingCreates.containsKey(todo.getId())) {
+							removed.add(todo);
+						}
+					}
+					if (!removed.isEmpty()) {
+						removed.forEach(todo -> {
+							titleUpdater.cancel(todo.getId());
+							writeBehindQueue.cancel(todo.getId());
+						});
+						todos.removeAll(removed);
+					}
+				});
+	}
+
+	// Called after all chunks have been applied
+	private void removeMissingOnServer(Set<Integer> serverIds) {
+		long start = System.nanoTime();
+		Set<ToDo> removed = new HashSet<>();
+		for (var todo : todos) {
+			if (!serverIds.contains(todo.getId()) && !pendingCreates.containsKey(todo.getId())) {
+				removed.add(todo);
+			}
+		}
+
+		if (!removed.isEmpty()) {
+			removed.forEach(todo -> {
+				titleUpdater.cancel(todo.getId());
+				writeBehindQueue.cancel(todo.getId());
+			});
+			todos.removeAll(removed);
+		}
+		Metrics.getInstance().operation("ui removeMissingOnServer").recordSince(start, false);
+	}
+
+	private void updateFromServer(ToDo todo, ToDo serverToDo) {
+		if (!Objects.equals(todo.getTitle(), serverToDo.getTitle()))
+			todo.setTitle(serverToDo.getTitle());
+		if (!Objects.equals(todo.getDate(), serverToDo.getDate()))
+			todo.setDate(serverToDo.getDate());
+		if (todo.getPriority() != serverToDo.getPriority())
+			todo.setPriority(serverToDo.getPriority());
+		if (todo.isCompleted() != serverToDo.isCompleted())
+			todo.setCompleted(serverToDo.isCompleted());
 	}
 }
@@ -0,0 +1,198 @@
+package com.example.model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.Predicate;
+
+import javafx.collections.ListChangeListener;
+import javafx.collections.ObservableList;
+
+/**
+ * Inverted index from the tokens of titles to ToDos.
+ * A token is a run of letters and digits, compared in lower case.
+ * The index follows additions and removals of the source list and title changes of each ToDo.
+ */
+public class ToDoSearchIndex {
+	private static final String[] NO_TOKENS = {};
+
+	// Sorted, so that all tokens with a prefix are one sub map
+	private final NavigableMap<String, Set<ToDo>> postings = new TreeMap<>();
+	// Tokens of each indexed ToDo, keyed by identity
+	private final Map<ToDo, String[]> tokensByToDo = new HashMap<>();
+	private final ToDo.FieldListener titleListener = (todo, fieldName, oldValue, newValue) -> {
+		if (fieldName.equals(ToDo.TITLE)) {
+			reindex(todo);
+		}
+	};
+
+	public ToDoSearchIndex(ObservableList<ToDo> source) {
+		source.addListener((ListChangeListener<ToDo>) change -> {
+			while (change.next()) {
+				if (change.wasPermutated()) {
+					continue;
+				}
+				change.getRemoved().forEach(this::removeToDo);
+				change.getAddedSubList().forEach(this::addToDo);
+			}
+		});
+		source.forEach(this::addToDo);
+	}
+
+	// Splits text into distinct lower-case tokens
+	static String[] tokenize(String text) {
+		if (text == null || text.isEmpty()) {
+			return NO_TOKENS;
+		}
+		List<String> tokens = new ArrayList<>(4);
+		int length = text.length();
+		int i = 0;
+		while (i < length) {
+			while (i < length && !Character.isLetterOrDigit(text.charAt(i))) {
+				i++;
+			}
+			int start = i;
+			while (i < length && Character.isLetterOrDigit(text.charAt(i))) {
+				i++;
+			}
+			if (start < i) {
+				var token = text.substring(start, i).toLowerCase(Locale.ROOT);
+				if (!tokens.contains(token)) {
+					tokens.add(token);
+				}
+			}
+		}
+		return tokens.toArray(NO_TOKENS);
+	}
+
+	private void addToDo(ToDo todo) {
+		if (tokensByToDo.containsKey(todo)) {
+			return;
+		}
+		var tokens = tokenize(todo.getTitle());
+		tokensByToDo.put(todo, tokens);
+		addPostings(todo, tokens);
+		todo.addFieldListener(titleListener);
+	}
+
+	private void removeToDo(ToDo todo) {
+		var tokens = tokensByToDo.remove(todo);
+		if (tokens == null) {
+			return;
+		}
+		removePostings(todo, tokens);
+		todo.removeFieldListener(titleListener);
+	}
+
+	// Only the tokens which differ between the old and the new title are touched
+	private void reindex(ToDo todo) {
+		var oldTokens = tokensByToDo.get(todo);
+		if (oldTokens == null) {
+			return;
+		}
+		var newTokens = tokenize(todo.getTitle());
+		tokensByToDo.put(todo, newTokens);
+		removePostings(todo, Arrays.stream(oldTokens)
+				.filter(token -> !Arrays.asList(newTokens).contains(token)).toArray(String[]::new));
+		addPostings(todo, Arrays.stream(newTokens)
+				.filter(token -> !Arrays.asList(oldTokens).contains(token)).toArray(String[]::new));
+	}
+
+	private void addPostings(ToDo todo, String[] tokens) {
+		for (var token : tokens) {
+			postings.computeIfAbsent(token, key -> new HashSet<>(2)).add(todo);
+		}
+	}
+
+	private void removePostings(ToDo todo, String[] tokens) {
+		for (var token : tokens) {
+			var todos = postings.get(token);
+			if (todos != null && todos.remove(todo) && todos.isEmpty()) {
+				postings.remove(token);
+			}
+		}
+	}
+
+	/**
+	 * Returns the ToDos whose title has, for each token of query, a token that starts with it.
+	 * Returns null when query has no token, i.e. every ToDo matches.
+	 */
+	public Set<ToDo> search(String query) {
+		var terms = tokenize(query);
+		if (terms.length == 0) {
+			return null;
+		}
+		// Only the ToDos of the term with the fewest of them are visited,
+		// and each of them is checked against the other terms through its own tokens
+		int rarest = 0;
+		int rarestCount = Integer.MAX_VALUE;
+		for (int i = 0; i < terms.length; i++) {
+			int count = 0;
+			for (var todos : withPrefix(terms[i]).values()) {
+				count += todos.size();
+			}
+			if (count < rarestCount) {
+				rarest = i;
+				rarestCount = count;
+			}
+		}
+
+		Set<ToDo> result = new HashSet<>(rarestCount * 4 / 3 + 1);
+		for (var todos : withPrefix(terms[rarest]).values()) {
+			if (terms.length == 1) {
+				result.addAll(todos);
+				continue;
+			}
+			for (var todo : todos) {
+				if (matchesAll(tokensByToDo.get(todo), terms, rarest)) {
+					result.add(todo);
+				}
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Returns a predicate which tests the current title of a ToDo like search, e.g. for a ToDo added after it.
+	 * Returns null when query has no token.
+	 */
+	public Predicate<ToDo> matcher(String query) {
+		var terms = tokenize(query);
+		if (terms.length == 0) {
+			return null;
+		}
+		return todo -> {
+			var tokens = tokensByToDo.get(todo);
+			return matchesAll(tokens == null ? tokenize(todo.getTitle()) : tokens, terms, -1);
+		};
+	}
+
+	private static boolean matchesAll(String[] tokens, String[] terms, int skipped) {
+		for (int i = 0; i < terms.length; i++) {
+			if (i != skipped && !hasTokenWithPrefix(tokens, terms[i])) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private NavigableMap<String, Set<ToDo>> withPrefix(String prefix) {
+		return postings.subMap(prefix, true, prefix + Character.MAX_VALUE, false);
+	}
+
+	private static boolean hasTokenWithPrefix(String[] tokens, String prefix) {
+		for (var token : tokens) {
+			if (token.startsWith(prefix)) {
+				return true;
+			}
+		}
+		return false;
+	}
+}
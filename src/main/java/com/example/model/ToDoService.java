@@ -1,21 +1,43 @@
 package com.example.model;
 
+import java.io.BufferedReader;
 import java.io.IOException;
-import java.net.URI;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.UncheckedIOException;
 import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Function;
 import java.util.logging.Logger;
+import java.util.regex.Pattern;
 
-import org.hildan.fxgson.FxGson;
 
 import com.example.AuthDialogController;
 import com.example.exceptions.ToDoServiceException;
 import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
 import com.google.gson.JsonSyntaxException;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.MalformedJsonException;
 
+import javafx.application.Platform;
+import javafx.beans.property.ReadOnlyBooleanProperty;
 import javafx.beans.property.SimpleStringProperty;
 import javafx.beans.property.StringProperty;
 import javafx.fxml.FXMLLoader;
@@ -23,12 +45,24 @@ import javafx.scene.control.ButtonType;
 import javafx.scene.control.Dialog;
 
 public class ToDoService {
-	private final HttpClient httpClient = HttpClient.newHttpClient();
+	private final HttpTransport transport = new HttpTransport(Settings.getInstance());
+	private final HttpClient httpClient = transport.client();
+	private final ResiliencePolicy resilience = new ResiliencePolicy();
 	private final Logger logger = Logger.getLogger(ToDoService.class.getName());
-	private final Gson gson = FxGson.coreBuilder()
-			.registerTypeAdapter(LocalDate.class, new LocalDateAdapter()) //Gson needed an adapter to convert LocalDate
-			.create();
-	private final Dialog<Boolean> authDialog = new Dialog<>();
+	private final Gson gson = ToDoJson.createGson();
+	private final TypeAdapter<ToDo> toDoAdapter = gson.getAdapter(ToDo.class);
+	// Built on the first 401 or 403, most sessions never show it
+	private Dialog<Boolean> authDialog;
+	// Result of the auth dialog while it is shown, which requests rejected meanwhile wait for
+	private CompletableFuture<Boolean> pendingAuth;
+	// Entity tag of the last list received by getAll, with the account it was received for
+	private volatile ListVersion listVersion;
+	// Completion stages of the async API are delivered on the JavaFX Application Thread
+	private final Executor fxExecutor = Platform::runLater;
+	// Blocking reads of streamed bodies
+	private final Executor streamingExecutor = Executors.newVirtualThreadPerTaskExecutor();
+	private static final int STREAMING_CHUNK_SIZE = 500;
+	private static final Pattern ID_SEGMENT = Pattern.compile("/-?\\d+");
 
 	// Properties for authDialog
 	public StringProperty userName = new SimpleStringProperty();
@@ -42,7 +76,13 @@ public class ToDoService {
 	private ToDoService() {
 		userName.set(Settings.getInstance().getUserName());
 		password.set(Settings.getInstance().getPassword());
-		
+	}
+
+	private Dialog<Boolean> getAuthDialog() {
+		if (authDialog != null) {
+			return authDialog;
+		}
+		authDialog = new Dialog<>();
 		// Config authDialog
 		authDialog.setTitle(getMessage("authdialog.your_account"));
 		authDialog.setHeaderText(getMessage("authdialog.enter_your_account"));
@@ -60,8 +100,12 @@ public class ToDoService {
 		// Initialize controller for auth dialog
 		AuthDialogController controller = loader.getController();
 		controller.initModel(this);
+		return authDialog;
 	}
 	
+	private record ListVersion(String etag, String rootEndPoint, String authorization) {
+	}
+
 	private static class SingletonHolder {
 		private static ToDoService singleton;
 	}
@@ -73,6 +117,37 @@ public class ToDoService {
 		return SingletonHolder.singleton;
 	}
 
+	// True while the server is considered down and requests fail without being sent
+	public ReadOnlyBooleanProperty offlineProperty() {
+		return resilience.offlineProperty();
+	}
+
+	public boolean isOffline() {
+		return resilience.isOffline();
+	}
+
+	/**
+	 * Asks for the account once for all async requests rejected with statusCode,
+	 * and completes with true if they should be sent again.
+	 * A request sent with older credentials than the current ones is sent again without asking.
+	 * Must be called on the JavaFX Application Thread.
+	 */
+	private CompletableFuture<Boolean> authenticateAsync(int statusCode, String sentAuthorization) {
+		if (pendingAuth != null) {
+			return pendingAuth;
+		}
+		if (!sentAuthorization.equals(getBasicAuthHeader())) {
+			return CompletableFuture.completedFuture(true);
+		}
+		var result = new CompletableFuture<Boolean>();
+		pendingAuth = result;
+		// showAndWait runs a nested event loop, in which other rejected requests get pendingAuth
+		boolean retry = openAuthDialog(statusCode);
+		pendingAuth = null;
+		result.complete(retry);
+		return result;
+	}
+
 	public boolean openAuthDialog(int statusCode) {
 		if (statusCode == 401) {
 			authError.set(getMessage("authdialog.invalid_account"));
@@ -87,7 +162,7 @@ public class ToDoService {
 			authError.set("");
 		}
 
-		var result = authDialog.showAndWait();
+		var result = getAuthDialog().showAndWait();
 		return result.orElse(false);
 	}
 
@@ -98,27 +173,56 @@ public class ToDoService {
 
 	private HttpResponse<String> sendRequest(HttpRequest.Builder builder)
 			throws ToDoServiceException {
+		int attempt = 0;
 		while (true) {
+			attempt++;
 			var newBuilder = builder.copy();			
 			var req = newBuilder.header("Authorization", getBasicAuthHeader()).build();
+			var breaker = resilience.breaker(req.uri());
+			if (!breaker.allowRequest()) {
+				logger.warning("sendRequest: circuit breaker is open");
+				throw new ToDoServiceException(ToDoServiceException.Type.IO_ERROR);
+			}
 
+			var metrics = requestMetrics(req);
+			long start = System.nanoTime();
 			HttpResponse<String> res;
 			try {
-				res = httpClient.send(req, HttpResponse.BodyHandlers.ofString());
-			} catch (IOException e) {
-				logger.severe("sendRequest: " + e.getMessage());
-				throw new ToDoServiceException(ToDoServiceException.Type.IO_ERROR, e);
+				res = httpClient.send(req, transport.ofString());
+			} catch (IOException | UncheckedIOException e) {
+				var cause = ioCause(e);
+				logger.severe("sendRequest: " + cause.getMessage());
+				metrics.recordSince(start, true);
+				breaker.recordFailure();
+				if (resilience.shouldRetry(req, attempt)) {
+					metrics.recordRetry();
+					waitBeforeRetry(attempt);
+					continue;
+				}
+				throw new ToDoServiceException(ToDoServiceException.Type.IO_ERROR, cause);
 			} catch (InterruptedException e) {
 				logger.severe("sendRequest: " + e.getMessage());
+				breaker.release();
 				throw new ToDoServiceException(ToDoServiceException.Type.INTERRUPTED_ERROR, e);
 			}
 			logger.info("HTTP Response Status Code: " + res.statusCode());
+			metrics.recordSince(start, isError(res));
+			metrics.recordBytes(requestBytes(req), responseBytes(res));
+
+			if (resilience.isRetryableStatus(res.statusCode())) {
+				breaker.recordFailure();
+				if (resilience.shouldRetry(req, attempt)) {
+					metrics.recordRetry();
+					waitBeforeRetry(attempt);
+					continue;
+				}
+			} else {
+				breaker.recordSuccess();
+			}
 			
 			switch (res.statusCode()) {
-				case 200, 201, 204:
-					Settings.getInstance().setUserName(userName.get());
-				    Settings.getInstance().setPassword(password.get());
-					Settings.getInstance().save();
+				case 200, 201, 204, 304:
+					saveAccount();
 					return res;
 				case 401:
 					if (openAuthDialog(res.statusCode()))
@@ -130,6 +234,12 @@ public class ToDoService {
 						continue;
 					else
 						throw new ToDoServiceException(ToDoServiceException.Type.AUTHORIZATION_ERROR);
+				case 405, 501:
+					logger.warning("sendRequest: operation is not supported by the server");
+					throw new ToDoServiceException(ToDoServiceException.Type.NOT_SUPPORTED_ERROR);
+				case 404:
+					logger.warning("sendRequest: resource is not found");
+					throw new ToDoServiceException(ToDoServiceException.Type.NOT_FOUND_ERROR);
 				default:
 					logger.severe("sendRequest: receive unsupported status code");
 					throw new ToDoServiceException(ToDoServiceException.Type.INTERNAL_SERVER_ERROR);
@@ -137,78 +247,508 @@ public class ToDoService {
 		}
 	}
 
-	public List<ToDo> getAll() throws ToDoServiceException {
-		var builder = HttpRequest.newBuilder()
-				.uri(URI.create(Settings.getInstance().getRootEndPoint() + "/todos"));
-		HttpResponse<String> res = sendRequest(builder);
+	// Unwraps the UncheckedIOException of a body that HttpTransport.ofString could not decode,
+	// which HttpClient wraps in an IOException or a CompletionException
+	private static Throwable ioCause(Throwable e) {
+		var cause = e instanceof CompletionException ? e.getCause() : e;
+		if (cause instanceof IOException && cause.getCause() instanceof UncheckedIOException) {
+			cause = cause.getCause();
+		}
+		return cause instanceof UncheckedIOException unchecked ? unchecked.getCause() : cause;
+	}
 
-		record GetResult(List<ToDo> todos, String error) {}
+	private void waitBeforeRetry(int attempt) throws ToDoServiceException {
 		try {
-			return gson.fromJson(res.body(), GetResult.class).todos();
-		} catch (JsonSyntaxException e) {
-			logger.severe("getAll: " + e.getMessage());
-			throw new ToDoServiceException(ToDoServiceException.Type.INTERNAL_SERVER_ERROR, e);
+			Thread.sleep(resilience.backoff(attempt));
+		} catch (InterruptedException e) {
+			throw new ToDoServiceException(ToDoServiceException.Type.INTERRUPTED_ERROR, e);
 		}
 	}
 
-	public ToDo create(String title, LocalDate date, int priority, boolean completed) throws ToDoServiceException {
-		record PostParams(String title, LocalDate date, int priority, boolean completed) {}
-		var json = gson.toJson(new PostParams(title, date, priority, completed));
+	private CompletableFuture<HttpResponse<String>> sendRequestAsync(HttpRequest.Builder builder) {
+		return sendRequestAsync(builder, transport.ofString());
+	}
 
-		var builder = HttpRequest.newBuilder()
-				.uri(URI.create(Settings.getInstance().getRootEndPoint() + "/todos"))
-				.header("Content-Type", "application/json")
-				.POST(HttpRequest.BodyPublishers.ofString(json));
-		HttpResponse<String> res = sendRequest(builder);
+	private <T> CompletableFuture<HttpResponse<T>> sendRequestAsync(HttpRequest.Builder builder,
+			HttpResponse.BodyHandler<T> bodyHandler) {
+		return sendRequestAsync(builder, bodyHandler, 1);
+	}
+
+	private <T> CompletableFuture<HttpResponse<T>> sendRequestAsync(HttpRequest.Builder builder,
+			HttpResponse.BodyHandler<T> bodyHandler, int attempt) {
+		var req = builder.copy().header("Authorization", getBasicAuthHeader()).build();
+		var breaker = resilience.breaker(req.uri());
+		if (!breaker.allowRequest()) {
+			logger.warning("sendRequestAsync: circuit breaker is open");
+			return CompletableFuture.failedFuture(new ToDoServiceException(ToDoServiceException.Type.IO_ERROR));
+		}
+
+		var metrics = requestMetrics(req);
+		long start = System.nanoTime();
+		return httpClient.sendAsync(req, bodyHandler)
+				.handle((res, e) -> {
+					if (e != null) {
+						var cause = ioCause(e);
+						logger.severe("sendRequestAsync: " + cause.getMessage());
+						metrics.recordSince(start, true);
+						breaker.recordFailure();
+						if (resilience.shouldRetry(req, attempt)) {
+							metrics.recordRetry();
+							return retryLater(builder, bodyHandler, attempt);
+						}
+						return CompletableFuture.<HttpResponse<T>>failedFuture(
+								new ToDoServiceException(ToDoServiceException.Type.IO_ERROR, cause));
+					}
+					logger.info("HTTP Response Status Code: " + res.statusCode());
+					// For a streamed body this is the time until the headers have arrived
+					metrics.recordSince(start, isError(res));
+					metrics.recordBytes(requestBytes(req), responseBytes(res));
+
+					if (res.statusCode() >= 300 && res.statusCode() != 304) {
+						discardBody(res);
+					}
+					if (resilience.isRetryableStatus(res.statusCode())) {
+						breaker.recordFailure();
+						if (resilience.shouldRetry(req, attempt)) {
+							metrics.recordRetry();
+							return retryLater(builder, bodyHandler, attempt);
+						}
+					} else {
+						breaker.recordSuccess();
+					}
+					return switch (res.statusCode()) {
+						case 200, 201, 204, 304 -> CompletableFuture.completedFuture(res);
+						// The auth dialog must be opened on the JavaFX Application Thread
+						case 401, 403 -> CompletableFuture.supplyAsync(
+										() -> authenticateAsync(res.statusCode(), req.headers().firstValue("Authorization").orElse("")),
+										fxExecutor)
+								.thenCompose(Function.identity())
+								.thenCompose(retry -> retry
+										? sendRequestAsync(builder, bodyHandler)
+										: CompletableFuture.failedFuture(new ToDoServiceException(res.statusCode() == 401
+												? ToDoServiceException.Type.AUTHENTICATION_ERROR
+												: ToDoServiceException.Type.AUTHORIZATION_ERROR)));
+						case 405, 501 -> {
+							logger.warning("sendRequestAsync: operation is not supported by the server");
+							yield CompletableFuture.<HttpResponse<T>>failedFuture(
+									new ToDoServiceException(ToDoServiceException.Type.NOT_SUPPORTED_ERROR));
+						}
+						case 404 -> {
+							logger.warning("sendRequestAsync: resource is not found");
+							yield CompletableFuture.<HttpResponse<T>>failedFuture(
+									new ToDoServiceException(ToDoServiceException.Type.NOT_FOUND_ERROR));
+						}
+						default -> {
+							logger.severe("sendRequestAsync: receive unsupported status code");
+							yield CompletableFuture.<HttpResponse<T>>failedFuture(
+									new ToDoServiceException(ToDoServiceException.Type.INTERNAL_SERVER_ERROR));
+						}
+					};
+				})
+				.thenCompose(Function.identity());
+	}
 
-		record PostResult(ToDo todo, String error) {}
+	private <T> CompletableFuture<HttpResponse<T>> retryLater(HttpRequest.Builder builder,
+			HttpResponse.BodyHandler<T> bodyHandler, int attempt) {
+		var delay = resilience.backoff(attempt);
+		logger.info("Retry in " + delay.toMillis() + " ms");
+		var delayedExecutor = CompletableFuture.delayedExecutor(delay.toMillis(), TimeUnit.MILLISECONDS);
+		return CompletableFuture.runAsync(() -> {}, delayedExecutor)
+				.thenCompose(v -> sendRequestAsync(builder, bodyHandler, attempt + 1));
+	}
+
+	// e.g. "http PUT /todos/{id}/title"
+	private OperationMetrics requestMetrics(HttpRequest req) {
+		var path = req.uri().getPath();
+		int index = path.lastIndexOf("/todos");
+		var resource = ID_SEGMENT.matcher(index < 0 ? path : path.substring(index)).replaceAll("/{id}");
+		return Metrics.getInstance().operation("http " + req.method() + " " + resource);
+	}
+
+	private static boolean isError(HttpResponse<?> res) {
+		return res.statusCode() >= 400;
+	}
+
+	private static long requestBytes(HttpRequest req) {
+		return req.bodyPublisher().map(HttpRequest.BodyPublisher::contentLength).orElse(0L);
+	}
+
+	// Bytes on the wire, i.e. compressed bytes if the body was compressed
+	private static long responseBytes(HttpResponse<?> res) {
+		return res.headers().firstValueAsLong("Content-Length")
+				.orElse(res.body() instanceof String body ? body.length() : 0);
+	}
+
+	// A streamed body must be closed to release the connection
+	private void discardBody(HttpResponse<?> res) {
+		if (res.body() instanceof InputStream in) {
+			try {
+				in.close();
+			} catch (IOException e) {
+				logger.warning("discardBody: " + e.getMessage());
+			}
+		}
+	}
+
+	/**
+	 * Hands the result of an async request over to the JavaFX Application Thread.
+	 * The account is saved only after the request has succeeded.
+	 */
+	private <T> CompletableFuture<T> deliverOnFxThread(CompletableFuture<T> future) {
+		return future.handleAsync((result, e) -> {
+			if (e != null) {
+				throw e instanceof CompletionException ce ? ce : new CompletionException(e);
+			}
+			saveAccount();
+			return result;
+		}, fxExecutor);
+	}
+
+	private void saveAccount() {
+		Settings.getInstance().setUserName(userName.get());
+		Settings.getInstance().setPassword(password.get());
+		Settings.getInstance().save();
+	}
+
+	// The Authorization header of res.request() is that of the last attempt, e.g. after the auth dialog
+	private void keepListVersion(HttpResponse<?> res) {
+		res.headers().firstValue("ETag").ifPresent(etag -> listVersion = new ListVersion(etag,
+				Settings.getInstance().getRootEndPoint(), res.request().headers().firstValue("Authorization").orElse("")));
+	}
+
+	private <T> T parse(String methodName, String body, Class<T> classOfT) throws ToDoServiceException {
+		var metrics = Metrics.getInstance().operation("parse " + methodName);
+		long start = System.nanoTime();
 		try {
-			return gson.fromJson(res.body(), PostResult.class).todo();
+			var result = gson.fromJson(body, classOfT);
+			metrics.recordSince(start, false);
+			return result;
 		} catch (JsonSyntaxException e) {
-			logger.severe("create: " + e.getMessage());
+			metrics.recordSince(start, true);
+			logger.severe(methodName + ": " + e.getMessage());
 			throw new ToDoServiceException(ToDoServiceException.Type.INTERNAL_SERVER_ERROR, e);
 		}
 	}
 
-	public void delete(int id) throws ToDoServiceException {
-		var builder = HttpRequest.newBuilder()
-				.uri(URI.create(Settings.getInstance().getRootEndPoint() + "/todos/" + id))
+	private <T> T parseAsync(String methodName, String body, Class<T> classOfT) {
+		try {
+			return parse(methodName, body, classOfT);
+		} catch (ToDoServiceException e) {
+			throw new CompletionException(e);
+		}
+	}
+
+	private HttpRequest.Builder getAllRequest() {
+		return transport.newRequest("/todos");
+	}
+
+	// e.g. /todos?from=2026-10-01&to=2026-10-31, an open bound is omitted
+	private HttpRequest.Builder getRangeRequest(ToDoDateIndex.DateRange range) {
+		var query = new StringBuilder();
+		if (range.from() != null) {
+			query.append("from=").append(range.from());
+		}
+		if (range.to() != null) {
+			query.append(query.isEmpty() ? "" : "&").append("to=").append(range.to());
+		}
+		return transport.newRequest(query.isEmpty() ? "/todos" : "/todos?" + query);
+	}
+
+	private HttpRequest.Builder changesRequest(String lastEventId) {
+		var builder = transport.newRequest("/todos/changes")
+				.header("Accept", "text/event-stream");
+		if (lastEventId != null) {
+			builder.header("Last-Event-ID", lastEventId);
+		}
+		return builder;
+	}
+
+	private HttpRequest.Builder createRequest(String title, LocalDate date, int priority, boolean completed) {
+		var json = gson.toJson(new ToDoJson.PostParams(title, date, priority, completed));
+		return transport.newRequest("/todos")
+				.header("Content-Type", "application/json")
+				.POST(HttpRequest.BodyPublishers.ofString(json));
+	}
+
+	private HttpRequest.Builder deleteRequest(int id) {
+		return transport.newRequest("/todos/" + id)
 				.DELETE();
-		sendRequest(builder);
 	}
 
-	public void deleteAll() throws ToDoServiceException {
-		var builder = HttpRequest.newBuilder()
-				.uri(URI.create(Settings.getInstance().getRootEndPoint() + "/todos"))
+	private HttpRequest.Builder deleteAllRequest() {
+		return transport.newRequest("/todos")
 				.DELETE();
-		sendRequest(builder);
 	}
 
-	private void updateField(int id, String fieldName, String json) throws ToDoServiceException {
-		var request = HttpRequest.newBuilder()
-				.uri(URI.create(Settings.getInstance().getRootEndPoint() + "/todos/" + id + "/" + fieldName))
+	private HttpRequest.Builder updateFieldRequest(int id, String fieldName, String json) {
+		return transport.newRequest("/todos/" + id + "/" + fieldName)
 				.header("Content-Type", "application/json")
 				.PUT(HttpRequest.BodyPublishers.ofString(json));
-		sendRequest(request);
+	}
+
+	// Each change is a JSON object with "id" and the changed fields, e.g. {"id":1,"completed":true}
+	private HttpRequest.Builder updateBatchRequest(List<Map<String, Object>> changes) {
+		return transport.newRequest("/todos")
+				.header("Content-Type", "application/json")
+				.method("PATCH", HttpRequest.BodyPublishers.ofString(gson.toJson(changes)));
+	}
+
+	/*
+	 * Blocking API
+	 */
+	public List<ToDo> getAll() throws ToDoServiceException {
+		HttpResponse<String> res = sendRequest(getAllRequest());
+		var todos = parse("getAll", res.body(), ToDoJson.GetResult.class).todos();
+		keepListVersion(res);
+		return todos;
+	}
+
+	public ToDo create(String title, LocalDate date, int priority, boolean completed) throws ToDoServiceException {
+		HttpResponse<String> res = sendRequest(createRequest(title, date, priority, completed));
+		return parse("create", res.body(), ToDoJson.PostResult.class).todo();
+	}
+
+	public void delete(int id) throws ToDoServiceException {
+		sendRequest(deleteRequest(id));
+	}
+
+	public void deleteAll() throws ToDoServiceException {
+		sendRequest(deleteAllRequest());
 	}
 
 	public void updateTitle(int id, String title) throws ToDoServiceException {
-		record Param(String title) {}
-		updateField(id, "title", gson.toJson(new Param(title)));
+		sendRequest(updateFieldRequest(id, "title", gson.toJson(new ToDoJson.TitleParam(title))));
 	}
 
 	public void updateDate(int id, LocalDate date) throws ToDoServiceException {
-		record Param(String date) {}
-		updateField(id, "date", gson.toJson(new Param(date.toString())));
+		sendRequest(updateFieldRequest(id, "date", gson.toJson(new ToDoJson.DateParam(date.toString()))));
 	}
 
 	public void updatePriority(int id, int priority) throws ToDoServiceException {
-		record Param(int priority) {}
-		updateField(id, "priority", gson.toJson(new Param(priority)));
+		sendRequest(updateFieldRequest(id, "priority", gson.toJson(new ToDoJson.PriorityParam(priority))));
 	}
 
 	public void updateCompleted(int id, boolean completed) throws ToDoServiceException {
-		record Param(boolean completed) {}
-		updateField(id, "completed", gson.toJson(new Param(completed)));
+		sendRequest(updateFieldRequest(id, "completed", gson.toJson(new ToDoJson.CompletedParam(completed))));
+	}
+
+	public void updateBatch(List<Map<String, Object>> changes) throws ToDoServiceException {
+		sendRequest(updateBatchRequest(changes));
+	}
+
+	/*
+	 * Async API
+	 * The returned futures complete on the JavaFX Application Thread.
+	 * They fail with a CompletionException whose cause is a ToDoServiceException.
+	 */
+	/**
+	 * Gets only the ToDos with a date in range. The ETag of the whole list is not updated.
+	 * A server without the from and to parameters returns all ToDos.
+	 */
+	public CompletableFuture<List<ToDo>> getRangeAsync(ToDoDateIndex.DateRange range) {
+		return deliverOnFxThread(sendRequestAsync(getRangeRequest(range))
+				.thenApply(res -> parseAsync("getRangeAsync", res.body(), ToDoJson.GetResult.class).todos()));
+	}
+
+	/**
+	 * Streams the list and passes each chunk of parsed ToDos to onChunk on the JavaFX Application Thread.
+	 * The body is parsed with JsonReader as it arrives, so the whole body is never held in memory.
+	 * Sends If-None-Match with the entity tag of the last received list,
+	 * unless the root endpoint or the credentials have changed since then.
+	 * The result is false when the list has not been modified since then, and onChunk is not called.
+	 */
+	public CompletableFuture<Boolean> getAllStreamingAsync(Consumer<List<ToDo>> onChunk) {
+		var builder = getAllRequest();
+		var version = listVersion;
+		if (version != null && Objects.equals(version.rootEndPoint(), Settings.getInstance().getRootEndPoint())
+				&& version.authorization().equals(getBasicAuthHeader())) {
+			builder.header("If-None-Match", version.etag());
+		}
+		return deliverOnFxThread(sendRequestAsync(builder, HttpResponse.BodyHandlers.ofInputStream())
+				.thenApplyAsync(res -> {
+					if (res.statusCode() == 304) {
+						discardBody(res);
+						return false;
+					}
+					try {
+						parseTodosStreaming(transport.decodedReader(res), onChunk);
+					} catch (IOException e) {
+						discardBody(res);
+						logger.severe("getAllStreamingAsync: " + e.getMessage());
+						throw new CompletionException(
+								new ToDoServiceException(ToDoServiceException.Type.IO_ERROR, e));
+					}
+					keepListVersion(res);
+					return true;
+				}, streamingExecutor));
+	}
+
+	// Reads {"todos": [...], "error": ...} token by token
+	// The parse time includes waiting for the body to arrive
+	private void parseTodosStreaming(Reader body, Consumer<List<ToDo>> onChunk) {
+		var metrics = Metrics.getInstance().operation("parse getAllStreamingAsync");
+		long start = System.nanoTime();
+		try (var reader = new JsonReader(body)) {
+			reader.beginObject();
+			while (reader.hasNext()) {
+				if (!reader.nextName().equals("todos") || reader.peek() == JsonToken.NULL) {
+					reader.skipValue();
+					continue;
+				}
+				reader.beginArray();
+				List<ToDo> chunk = new ArrayList<>(STREAMING_CHUNK_SIZE);
+				while (reader.hasNext()) {
+					chunk.add(toDoAdapter.read(reader));
+					if (chunk.size() == STREAMING_CHUNK_SIZE) {
+						var fullChunk = chunk;
+						Platform.runLater(() -> onChunk.accept(fullChunk));
+						chunk = new ArrayList<>(STREAMING_CHUNK_SIZE);
+					}
+				}
+				reader.endArray();
+				if (!chunk.isEmpty()) {
+					var lastChunk = chunk;
+					Platform.runLater(() -> onChunk.accept(lastChunk));
+				}
+			}
+			reader.endObject();
+			metrics.recordSince(start, false);
+		} catch (JsonParseException | MalformedJsonException | IllegalStateException | NumberFormatException e) {
+			metrics.recordSince(start, true);
+			logger.severe("getAllStreamingAsync: " + e.getMessage());
+			throw new CompletionException(
+					new ToDoServiceException(ToDoServiceException.Type.INTERNAL_SERVER_ERROR, e));
+		} catch (IOException e) {
+			metrics.recordSince(start, true);
+			logger.severe("getAllStreamingAsync: " + e.getMessage());
+			throw new CompletionException(new ToDoServiceException(ToDoServiceException.Type.IO_ERROR, e));
+		}
+	}
+
+	/**
+	 * Subscribes to the change feed, a Server-Sent Events stream of /todos/changes.
+	 * With lastEventId, the server first sends the events after it.
+	 * Events are passed to onEvents on the JavaFX Application Thread, those which arrive together in one list.
+	 * The future completes when the server ends the stream and fails when the connection is lost.
+	 * Cancelling it closes the stream.
+	 */
+	public CompletableFuture<Void> subscribeChangesAsync(String lastEventId, Consumer<List<ChangeFeed.Event>> onEvents) {
+		var subscription = new CompletableFuture<Void>();
+		sendRequestAsync(changesRequest(lastEventId), HttpResponse.BodyHandlers.ofInputStream())
+				.thenAcceptAsync(res -> {
+					// Closing the body makes the blocked read below fail
+					subscription.whenComplete((v, e) -> discardBody(res));
+					try (var reader = new BufferedReader(
+							new InputStreamReader(transport.decodedBody(res), StandardCharsets.UTF_8))) {
+						readChangeEvents(reader, onEvents);
+						fxExecutor.execute(() -> subscription.complete(null));
+					} catch (IOException e) {
+						if (!subscription.isDone()) {
+							logger.warning("subscribeChangesAsync: " + e.getMessage());
+						}
+						fxExecutor.execute(() -> subscription.completeExceptionally(new CompletionException(
+								new ToDoServiceException(ToDoServiceException.Type.IO_ERROR, e))));
+					}
+				}, streamingExecutor)
+				.exceptionally(e -> {
+					fxExecutor.execute(() -> subscription.completeExceptionally(
+							e instanceof CompletionException ? e : new CompletionException(e)));
+					return null;
+				});
+		return subscription;
+	}
+
+	// Dispatches an event at each blank line. Lines starting with a colon are comments.
+	// A block without an event type, e.g. a comment or only an id, is passed as KEEP_ALIVE with the last id.
+	private void readChangeEvents(BufferedReader reader, Consumer<List<ChangeFeed.Event>> onEvents)
+			throws IOException {
+		List<ChangeFeed.Event> events = new ArrayList<>();
+		String id = null;
+		String type = null;
+		var data = new StringBuilder();
+		String line;
+		while ((line = reader.readLine()) != null) {
+			if (line.isEmpty()) {
+				var event = type == null
+						? new ChangeFeed.Event(ChangeFeed.Type.KEEP_ALIVE, id, null)
+						: parseChangeEvent(id, type, data.toString());
+				if (event != null) {
+					events.add(event);
+				}
+				type = null;
+				data.setLength(0);
+			} else if (!line.startsWith(":")) {
+				int colon = line.indexOf(':');
+				var field = colon < 0 ? line : line.substring(0, colon);
+				var value = colon < 0 ? "" : line.substring(line.startsWith(" ", colon + 1) ? colon + 2 : colon + 1);
+				switch (field) {
+					case "id" -> id = value;
+					case "event" -> type = value;
+					case "data" -> data.append(data.isEmpty() ? "" : "\n").append(value);
+					default -> {}
+				}
+			}
+			// Events which have already arrived are delivered together
+			if (!events.isEmpty() && !reader.ready()) {
+				var batch = events;
+				fxExecutor.execute(() -> onEvents.accept(batch));
+				events = new ArrayList<>();
+			}
+		}
+	}
+
+	// Returns null for an unknown or malformed event, which is skipped
+	private ChangeFeed.Event parseChangeEvent(String id, String type, String data) {
+		try {
+			return switch (type) {
+				case "upsert" -> new ChangeFeed.Event(ChangeFeed.Type.UPSERT, id, toDoAdapter.fromJson(data));
+				case "delete" -> new ChangeFeed.Event(ChangeFeed.Type.DELETE, id, toDoAdapter.fromJson(data));
+				case "reset" -> new ChangeFeed.Event(ChangeFeed.Type.RESET, id, null);
+				default -> null;
+			};
+		} catch (IOException | JsonParseException | IllegalStateException | NumberFormatException e) {
+			logger.warning("subscribeChangesAsync: skip event " + id + ": " + e.getMessage());
+			return null;
+		}
+	}
+
+	public CompletableFuture<ToDo> createAsync(String title, LocalDate date, int priority, boolean completed) {
+		return deliverOnFxThread(sendRequestAsync(createRequest(title, date, priority, completed))
+				.thenApply(res -> parseAsync("createAsync", res.body(), ToDoJson.PostResult.class).todo()));
+	}
+
+	public CompletableFuture<Void> deleteAsync(int id) {
+		return deliverOnFxThread(sendRequestAsync(deleteRequest(id)).thenAccept(res -> {}));
+	}
+
+	public CompletableFuture<Void> deleteAllAsync() {
+		return deliverOnFxThread(sendRequestAsync(deleteAllRequest()).thenAccept(res -> {}));
+	}
+
+	private CompletableFuture<Void> updateFieldAsync(int id, String fieldName, String json) {
+		return deliverOnFxThread(sendRequestAsync(updateFieldRequest(id, fieldName, json)).thenAccept(res -> {}));
+	}
+
+	/**
+	 * Fails with NOT_SUPPORTED_ERROR when the server has no bulk update endpoint.
+	 */
+	public CompletableFuture<Void> updateBatchAsync(List<Map<String, Object>> changes) {
+		return deliverOnFxThread(sendRequestAsync(updateBatchRequest(changes)).thenAccept(res -> {}));
+	}
+
+	public CompletableFuture<Void> updateTitleAsync(int id, String title) {
+		return updateFieldAsync(id, "title", gson.toJson(new ToDoJson.TitleParam(title)));
+	}
+
+	public CompletableFuture<Void> updateDateAsync(int id, LocalDate date) {
+		return updateFieldAsync(id, "date", gson.toJson(new ToDoJson.DateParam(date.toString())));
+	}
+
+	public CompletableFuture<Void> updatePriorityAsync(int id, int priority) {
+		return updateFieldAsync(id, "priority", gson.toJson(new ToDoJson.PriorityParam(priority)));
+	}
+
+	public CompletableFuture<Void> updateCompletedAsync(int id, boolean completed) {
+		return updateFieldAsync(id, "completed", gson.toJson(new ToDoJson.CompletedParam(completed)));
 	}
 }
@@ -0,0 +1,113 @@
+package com.example.model;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.logging.Logger;
+
+/**
+ * Local copy of the todo list that is shown at startup before the server answers.
+ * The file is a compact binary format and is replaced atomically.
+ */
+public class ToDoSnapshot {
+	private static final Logger logger = Logger.getLogger(ToDoSnapshot.class.getName());
+	private static final Path snapshotPath = Path.of("./todos.snapshot");
+	private static final int MAGIC = 0x54444f53; // "TDOS"
+	private static final int VERSION = 1;
+	private static final long NO_DATE = Long.MIN_VALUE;
+
+	// Immutable copy of a ToDo, so the list can be written off the JavaFX Application Thread
+	record Entry(int id, String title, LocalDate date, int priority, boolean completed) {
+		static Entry of(ToDo todo) {
+			return new Entry(todo.getId(), todo.getTitle(), todo.getDate(), todo.getPriority(), todo.isCompleted());
+		}
+	}
+
+	private ToDoSnapshot() {
+	}
+
+	/**
+	 * Returns an empty list when there is no snapshot, or it was taken for another account.
+	 */
+	public static List<ToDo> load(String rootEndPoint, String userName) {
+		List<ToDo> todos = new ArrayList<>();
+		try (var in = new DataInputStream(new BufferedInputStream(Files.newInputStream(snapshotPath)))) {
+			if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+				logger.warning("Snapshot has an unknown format");
+				return todos;
+			}
+			if (!readString(in).equals(rootEndPoint) || !readString(in).equals(userName)) {
+				return todos;
+			}
+			int count = in.readInt();
+			for (int i = 0; i < count; i++) {
+				int id = in.readInt();
+				String title = readString(in);
+				long epochDay = in.readLong();
+				int priority = in.readInt();
+				boolean completed = in.readBoolean();
+				todos.add(new ToDo(id, title, epochDay == NO_DATE ? null : LocalDate.ofEpochDay(epochDay),
+						priority, completed));
+			}
+		} catch (NoSuchFileException e) {
+			// First launch
+		} catch (IOException | IllegalArgumentException e) {
+			logger.severe("Error in loading snapshot: " + e.getMessage());
+			todos.clear();
+		}
+		return todos;
+	}
+
+	// Writes to a temporary file and renames it, so a crash never leaves a broken snapshot
+	static void save(String rootEndPoint, String userName, List<Entry> entries) {
+		Path tmpPath = snapshotPath.resolveSibling(snapshotPath.getFileName() + ".tmp");
+		try (var fileOut = new FileOutputStream(tmpPath.toFile());
+				var out = new DataOutputStream(new BufferedOutputStream(fileOut))) {
+			out.writeInt(MAGIC);
+			out.writeInt(VERSION);
+			writeString(out, rootEndPoint);
+			writeString(out, userName);
+			out.writeInt(entries.size());
+			for (var entry : entries) {
+				out.writeInt(entry.id());
+				writeString(out, entry.title());
+				out.writeLong(entry.date() == null ? NO_DATE : entry.date().toEpochDay());
+				out.writeInt(entry.priority());
+				out.writeBoolean(entry.completed());
+			}
+			out.flush();
+			fileOut.getFD().sync();
+		} catch (IOException e) {
+			logger.severe("Error in saving snapshot: " + e.getMessage());
+			return;
+		}
+
+		try {
+			Files.move(tmpPath, snapshotPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		} catch (IOException e) {
+			logger.severe("Error in replacing snapshot: " + e.getMessage());
+		}
+	}
+
+	// Unlike writeUTF(), the length is not limited to 65535 bytes
+	private static void writeString(DataOutputStream out, String value) throws IOException {
+		byte[] bytes = (value == null ? "" : value).getBytes(StandardCharsets.UTF_8);
+		out.writeInt(bytes.length);
+		out.write(bytes);
+	}
+
+	private static String readString(DataInputStream in) throws IOException {
+		return new String(in.readNBytes(in.readInt()), StandardCharsets.UTF_8);
+	}
+}
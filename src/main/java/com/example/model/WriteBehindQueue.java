@@ -0,0 +1,216 @@
+package com.example.model;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.logging.Logger;
+
+import com.example.exceptions.ToDoServiceException;
+
+import javafx.animation.Animation;
+import javafx.animation.PauseTransition;
+import javafx.util.Duration;
+
+/**
+ * Collects field updates and sends them to the server in batches.
+ * Changes are merged per id and per field, so only the latest value of each field is sent.
+ * A batch is flushed when it reaches flushSize ids or flushInterval after its first change.
+ * Only one batch is in flight at a time. Changes made meanwhile are merged into the next batch,
+ * which is sent when the one in flight has completed.
+ * If the server has no bulk update endpoint, the queue falls back to the per-field endpoints.
+ * When a change fails, only that field is rolled back to its value before the change,
+ * unless a newer change of the field is pending. That one is sent instead.
+ * When the server is unreachable, the failed and pending changes are handed to an OfflineHandler instead.
+ * All methods must be called on the JavaFX Application Thread.
+ */
+public final class WriteBehindQueue {
+	private final Logger logger = Logger.getLogger(WriteBehindQueue.class.getName());
+	private final int flushSize;
+	private final PauseTransition flushTimer;
+	private final RollbackHandler rollbackHandler;
+	private final OfflineHandler offlineHandler;
+	// id -> (field name -> new value)
+	private Map<Integer, Map<String, Object>> pending = new LinkedHashMap<>();
+	// id -> (field name -> value before the first pending change)
+	private Map<Integer, Map<String, Object>> oldValues = new LinkedHashMap<>();
+	private CompletableFuture<Void> pendingFuture = new CompletableFuture<>();
+	// The batch being sent, null if none
+	private Map<Integer, Map<String, Object>> inFlight;
+	private CompletableFuture<Void> inFlightFuture;
+	private boolean bulkSupported = true;
+
+	@FunctionalInterface
+	public interface RollbackHandler {
+		void rollback(int id, String fieldName, Object oldValue);
+	}
+
+	@FunctionalInterface
+	public interface OfflineHandler {
+		// changes: id -> (field name -> new value)
+		void offline(Map<Integer, Map<String, Object>> changes);
+	}
+
+	private record Failure(Map<Integer, Map<String, Object>> changes, Throwable cause) {}
+
+	public WriteBehindQueue(int flushSize, Duration flushInterval, RollbackHandler rollbackHandler,
+			OfflineHandler offlineHandler) {
+		this.flushSize = flushSize;
+		this.rollbackHandler = rollbackHandler;
+		this.offlineHandler = offlineHandler;
+		flushTimer = new PauseTransition(flushInterval);
+		flushTimer.setOnFinished(e -> flush());
+	}
+
+	/**
+	 * Returns a future that completes when the batch including this change has been sent.
+	 */
+	public CompletableFuture<Void> enqueue(int id, String fieldName, Object value, Object oldValue) {
+		var future = pendingFuture;
+		pending.computeIfAbsent(id, key -> new LinkedHashMap<>()).put(fieldName, value);
+		oldValues.computeIfAbsent(id, key -> new LinkedHashMap<>()).putIfAbsent(fieldName, oldValue);
+		if (pending.size() >= flushSize) {
+			flush();
+		} else if (flushTimer.getStatus() != Animation.Status.RUNNING) {
+			flushTimer.play();
+		}
+		return future;
+	}
+
+	// True while a change of id waits to be sent or is being sent
+	public boolean isPending(int id) {
+		return pending.containsKey(id) || inFlight != null && inFlight.containsKey(id);
+	}
+
+	public void cancel(int id) {
+		pending.remove(id);
+		oldValues.remove(id);
+	}
+
+	public void cancelAll() {
+		pending.clear();
+		oldValues.clear();
+	}
+
+	// Returns a future that completes when the pending changes have been sent
+	public CompletableFuture<Void> flush() {
+		flushTimer.stop();
+		if (inFlight != null) {
+			// Sent when the batch in flight has completed
+			return pending.isEmpty() ? inFlightFuture : pendingFuture;
+		}
+		var future = pendingFuture;
+		pendingFuture = new CompletableFuture<>();
+		if (pending.isEmpty()) {
+			future.complete(null);
+			return future;
+		}
+		var changes = pending;
+		var changesOldValues = oldValues;
+		pending = new LinkedHashMap<>();
+		oldValues = new LinkedHashMap<>();
+		inFlight = changes;
+		inFlightFuture = future;
+
+		send(changes).thenAccept(failure -> {
+			inFlight = null;
+			inFlightFuture = null;
+			if (failure == null) {
+				future.complete(null);
+			} else {
+				failed(failure, changesOldValues, future);
+			}
+			if (!pending.isEmpty()) {
+				flush();
+			}
+		});
+		return future;
+	}
+
+	private void failed(Failure failure, Map<Integer, Map<String, Object>> changesOldValues,
+			CompletableFuture<Void> future) {
+		logger.severe("flush: " + failure.cause().getMessage());
+		if (failure.cause() instanceof ToDoServiceException tdse
+				&& tdse.getType() == ToDoServiceException.Type.IO_ERROR) {
+			// Keep the changes. A newer pending value of the same field wins.
+			var offlineChanges = failure.changes();
+			pending.forEach((id, fields) -> {
+				offlineChanges.computeIfAbsent(id, key -> new LinkedHashMap<>()).putAll(fields);
+			});
+			cancelAll();
+			flushTimer.stop();
+			var newerFuture = pendingFuture;
+			pendingFuture = new CompletableFuture<>();
+			offlineHandler.offline(offlineChanges);
+			future.complete(null);
+			newerFuture.complete(null);
+			return;
+		}
+		failure.changes().forEach((id, fields) -> fields.keySet().forEach(fieldName -> {
+			var oldValue = changesOldValues.get(id).get(fieldName);
+			var newerChanges = pending.get(id);
+			if (newerChanges != null && newerChanges.containsKey(fieldName)) {
+				// The newer change is sent next. If it fails too, the field goes back to the value before both.
+				oldValues.get(id).put(fieldName, oldValue);
+			} else {
+				rollbackHandler.rollback(id, fieldName, oldValue);
+			}
+		}));
+		future.completeExceptionally(failure.cause());
+	}
+
+	// Completes with null when all changes have been sent
+	private CompletableFuture<Failure> send(Map<Integer, Map<String, Object>> changes) {
+		if (!bulkSupported) {
+			return sendEach(changes);
+		}
+
+		List<Map<String, Object>> batch = new ArrayList<>();
+		changes.forEach((id, fields) -> {
+			Map<String, Object> change = new LinkedHashMap<>();
+			change.put("id", id);
+			change.putAll(fields);
+			batch.add(change);
+		});
+		return ToDoService.getInstance().updateBatchAsync(batch)
+				.thenApply(result -> (Failure) null)
+				.exceptionallyCompose(e -> {
+					var cause = e instanceof CompletionException ? e.getCause() : e;
+					if (cause instanceof ToDoServiceException tdse && tdse.getType() == ToDoServiceException.Type.NOT_SUPPORTED_ERROR) {
+						logger.warning("Bulk update is not supported. Use per-field updates.");
+						bulkSupported = false;
+						return sendEach(changes);
+					}
+					return CompletableFuture.completedFuture(new Failure(changes, cause));
+				});
+	}
+
+	private CompletableFuture<Failure> sendEach(Map<Integer, Map<String, Object>> changes) {
+		var service = ToDoService.getInstance();
+		Map<Integer, Map<String, Object>> failedChanges = new LinkedHashMap<>();
+		Throwable[] firstCause = new Throwable[1];
+		List<CompletableFuture<Void>> futures = new ArrayList<>();
+		changes.forEach((id, fields) -> fields.forEach((fieldName, value) -> {
+			var future = switch (fieldName) {
+				case ToDo.TITLE -> service.updateTitleAsync(id, (String) value);
+				case ToDo.DATE -> service.updateDateAsync(id, (LocalDate) value);
+				case ToDo.PRIORITY -> service.updatePriorityAsync(id, (Integer) value);
+				case ToDo.COMPLETED -> service.updateCompletedAsync(id, (Boolean) value);
+				default -> throw new IllegalArgumentException("Unknown field: " + fieldName);
+			};
+			// Callbacks run on the JavaFX Application Thread
+			futures.add(future.exceptionally(e -> {
+				failedChanges.computeIfAbsent(id, key -> new LinkedHashMap<>()).put(fieldName, value);
+				if (firstCause[0] == null) {
+					firstCause[0] = e instanceof CompletionException ? e.getCause() : e;
+				}
+				return null;
+			}));
+		}));
+		return CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new))
+				.thenApply(result -> failedChanges.isEmpty() ? null : new Failure(failedChanges, firstCause[0]));
+	}
+}
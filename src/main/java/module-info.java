@@ -8,6 +8,9 @@ module mvcapp {
     requires org.hildan.fxgson;
 	requires java.logging;
 	requires com.google.gson;
+	requires java.management;
 	opens com.example to javafx.graphics, javafx.fxml, com.google.gson;
 	opens com.example.model to com.google.gson;
+	// MBean interfaces are called by the platform MBean server
+	exports com.example.model to java.management;
 }